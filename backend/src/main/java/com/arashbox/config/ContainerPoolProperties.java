@@ -0,0 +1,55 @@
+package com.arashbox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "arashbox.pool")
+public class ContainerPoolProperties {
+
+    private boolean enabled = true;
+    private int minSize = 1;
+    private int maxSize = 4;
+    private long shrinkIntervalMs = 30_000;
+    private Map<String, Size> languages = new HashMap<>();
+
+    public static class Size {
+        private Integer minSize;
+        private Integer maxSize;
+
+        public Integer getMinSize() { return minSize; }
+        public void setMinSize(Integer minSize) { this.minSize = minSize; }
+
+        public Integer getMaxSize() { return maxSize; }
+        public void setMaxSize(Integer maxSize) { this.maxSize = maxSize; }
+    }
+
+    public int minSizeFor(String language) {
+        Size size = languages.get(language);
+        return size != null && size.getMinSize() != null ? size.getMinSize() : minSize;
+    }
+
+    public int maxSizeFor(String language) {
+        Size size = languages.get(language);
+        int max = size != null && size.getMaxSize() != null ? size.getMaxSize() : maxSize;
+        return Math.max(max, minSizeFor(language));
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMinSize() { return minSize; }
+    public void setMinSize(int minSize) { this.minSize = minSize; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public long getShrinkIntervalMs() { return shrinkIntervalMs; }
+    public void setShrinkIntervalMs(long shrinkIntervalMs) { this.shrinkIntervalMs = shrinkIntervalMs; }
+
+    public Map<String, Size> getLanguages() { return languages; }
+    public void setLanguages(Map<String, Size> languages) { this.languages = languages; }
+}
@@ -0,0 +1,10 @@
+package com.arashbox.config;
+
+import com.github.dockerjava.api.DockerClient;
+
+/** Creates the client for one configured Docker host. Tests swap in fake engines here. */
+@FunctionalInterface
+public interface DockerClientFactory {
+
+    DockerClient create(DockerProperties.Host host);
+}
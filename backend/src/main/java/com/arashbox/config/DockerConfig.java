@@ -1,6 +1,5 @@
 package com.arashbox.config;
 
-import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.zerodep.ZerodepDockerHttpClient;
@@ -13,18 +12,23 @@ import java.time.Duration;
 public class DockerConfig {
 
     @Bean
-    public DockerClient dockerClient() {
-        DefaultDockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
-                .withDockerHost("npipe:////./pipe/docker_engine")
-                .build();
+    public DockerClientFactory dockerClientFactory() {
+        return host -> {
+            DefaultDockerClientConfig.Builder builder = DefaultDockerClientConfig.createDefaultConfigBuilder();
+            if (host.getUrl() != null) {
+                builder.withDockerHost(host.getUrl());
+            }
+            DefaultDockerClientConfig config = builder.build();
 
-        ZerodepDockerHttpClient httpClient = new ZerodepDockerHttpClient.Builder()
-                .dockerHost(config.getDockerHost())
-                .maxConnections(100)
-                .connectionTimeout(Duration.ofSeconds(30))
-                .responseTimeout(Duration.ofSeconds(45))
-                .build();
+            ZerodepDockerHttpClient httpClient = new ZerodepDockerHttpClient.Builder()
+                    .dockerHost(config.getDockerHost())
+                    .sslConfig(config.getSSLConfig())
+                    .maxConnections(host.getMaxConnections())
+                    .connectionTimeout(Duration.ofSeconds(30))
+                    .responseTimeout(Duration.ofSeconds(45))
+                    .build();
 
-        return DockerClientImpl.getInstance(config, httpClient);
+            return DockerClientImpl.getInstance(config, httpClient);
+        };
     }
 }
@@ -0,0 +1,34 @@
+package com.arashbox.config;
+
+import com.arashbox.service.DockerHost;
+import com.arashbox.service.DockerHostRegistry;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** Up while at least one Docker host is in rotation; per-host state comes from the registry's probes. */
+@Component("docker")
+public class DockerHealthIndicator implements HealthIndicator {
+
+    private final DockerHostRegistry hosts;
+
+    public DockerHealthIndicator(DockerHostRegistry hosts) {
+        this.hosts = hosts;
+    }
+
+    @Override
+    public Health health() {
+        boolean anyHealthy = false;
+        Health.Builder builder = Health.unknown();
+        for (DockerHost host : hosts.getHosts()) {
+            anyHealthy |= host.isHealthy();
+            builder.withDetail(host.getName(), Map.of(
+                    "status", host.isHealthy() ? "UP" : "DOWN",
+                    "active", host.getActive(),
+                    "weight", host.getWeight()));
+        }
+        return (anyHealthy ? builder.up() : builder.down()).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.arashbox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "arashbox.docker")
+public class DockerProperties {
+
+    // Empty means a single host at the platform default (DOCKER_HOST, the unix socket or the npipe)
+    private List<Host> hosts = new ArrayList<>();
+    private long healthCheckIntervalMs = 5_000;
+    // Consecutive failed calls or probes before a host stops receiving executions
+    private int failureThreshold = 2;
+
+    public static class Host {
+        private String name;
+        // unix:///var/run/docker.sock, tcp://10.0.0.5:2375, npipe:////./pipe/docker_engine
+        private String url;
+        // Relative share of executions; a weight-2 host runs twice as many as a weight-1 host
+        private int weight = 1;
+        private int maxConnections = 100;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public int getWeight() { return weight; }
+        public void setWeight(int weight) { this.weight = weight; }
+
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+    }
+
+    public List<Host> getHosts() { return hosts; }
+    public void setHosts(List<Host> hosts) { this.hosts = hosts; }
+
+    public long getHealthCheckIntervalMs() { return healthCheckIntervalMs; }
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) { this.healthCheckIntervalMs = healthCheckIntervalMs; }
+
+    public int getFailureThreshold() { return failureThreshold; }
+    public void setFailureThreshold(int failureThreshold) { this.failureThreshold = failureThreshold; }
+}
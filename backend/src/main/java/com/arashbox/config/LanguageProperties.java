@@ -0,0 +1,17 @@
+package com.arashbox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "arashbox")
+public class LanguageProperties {
+
+    private Map<String, LanguageRuntime> languages = new LinkedHashMap<>();
+
+    public Map<String, LanguageRuntime> getLanguages() { return languages; }
+    public void setLanguages(Map<String, LanguageRuntime> languages) { this.languages = languages; }
+}
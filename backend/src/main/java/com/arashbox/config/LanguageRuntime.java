@@ -0,0 +1,72 @@
+package com.arashbox.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How one language is run: its image, files, commands and sandbox limits. Bound from
+ * {@code arashbox.languages.<name>}; limits left unset take the arashbox.execution defaults.
+ */
+public class LanguageRuntime {
+
+    private String image;
+    private String extension;
+    // Defaults to main.<extension>
+    private String mainFile;
+    // Shell command run in /tmp/project of a build container; must write everything the
+    // run needs to /tmp/build. Unset for interpreted languages.
+    private String compile;
+    // Run command; {entrypoint} is the project-relative entrypoint, {class} its Java class name
+    private List<String> run = new ArrayList<>();
+    private List<String> env = new ArrayList<>();
+    private Integer memoryLimitMb;
+    private Double cpuLimit;
+    private Long pidsLimit;
+    private Integer timeoutSeconds;
+    private int tmpfsSizeMb = 10;
+    // Native binaries run from /tmp, so it can't be mounted noexec for them
+    private boolean execTmpfs;
+    // Executed once per language at startup, before the app reports ready
+    private String warmupCode;
+
+    public boolean isCompiled() { return compile != null && !compile.isBlank(); }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public String getExtension() { return extension; }
+    public void setExtension(String extension) { this.extension = extension; }
+
+    public String getMainFile() { return mainFile != null ? mainFile : "main." + extension; }
+    public void setMainFile(String mainFile) { this.mainFile = mainFile; }
+
+    public String getCompile() { return compile; }
+    public void setCompile(String compile) { this.compile = compile; }
+
+    public List<String> getRun() { return run; }
+    public void setRun(List<String> run) { this.run = run; }
+
+    public List<String> getEnv() { return env; }
+    public void setEnv(List<String> env) { this.env = env; }
+
+    public Integer getMemoryLimitMb() { return memoryLimitMb; }
+    public void setMemoryLimitMb(Integer memoryLimitMb) { this.memoryLimitMb = memoryLimitMb; }
+
+    public Double getCpuLimit() { return cpuLimit; }
+    public void setCpuLimit(Double cpuLimit) { this.cpuLimit = cpuLimit; }
+
+    public Long getPidsLimit() { return pidsLimit; }
+    public void setPidsLimit(Long pidsLimit) { this.pidsLimit = pidsLimit; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    public int getTmpfsSizeMb() { return tmpfsSizeMb; }
+    public void setTmpfsSizeMb(int tmpfsSizeMb) { this.tmpfsSizeMb = tmpfsSizeMb; }
+
+    public boolean isExecTmpfs() { return execTmpfs; }
+    public void setExecTmpfs(boolean execTmpfs) { this.execTmpfs = execTmpfs; }
+
+    public String getWarmupCode() { return warmupCode; }
+    public void setWarmupCode(String warmupCode) { this.warmupCode = warmupCode; }
+}
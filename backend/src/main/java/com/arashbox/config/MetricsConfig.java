@@ -0,0 +1,136 @@
+package com.arashbox.config;
+
+import com.arashbox.service.BuildArtifactCache;
+import com.arashbox.service.CodeBlobStore;
+import com.arashbox.service.ContainerPool;
+import com.arashbox.service.DockerHost;
+import com.arashbox.service.DockerHostRegistry;
+import com.arashbox.service.ExecutionHistory;
+import com.arashbox.service.ExecutionResultCache;
+import com.arashbox.service.ExecutionScheduler;
+import com.arashbox.service.ExecutionWatchdog;
+import com.arashbox.service.InFlightLimiter;
+import com.arashbox.service.SnippetCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder executionGauges(ExecutionScheduler scheduler, ContainerPool containerPool,
+                                       ExecutionResultCache resultCache, RateLimiter rateLimiter,
+                                       DockerHostRegistry dockerHosts, SnippetCache snippetCache,
+                                       CodeBlobStore codeBlobStore, BuildArtifactCache buildCache,
+                                       ExecutionWatchdog watchdog, ExecutionHistory history,
+                                       SharedBuckets sharedBuckets, InFlightLimiter inFlight) {
+        return registry -> {
+            Gauge.builder("arashbox.executions.active", scheduler, ExecutionScheduler::getRunning)
+                    .description("Executions currently running")
+                    .register(registry);
+            Gauge.builder("arashbox.executions.queued", scheduler, ExecutionScheduler::getQueued)
+                    .description("Executions waiting for a slot")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.executions.expired", watchdog, ExecutionWatchdog::getExpired)
+                    .description("Executions killed by the watchdog for exceeding their hard deadline")
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.history.records", history, ExecutionHistory::getWritten)
+                    .tag("result", "written")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.history.records", history, ExecutionHistory::getDropped)
+                    .description("Execution records lost to a full queue or a failed insert")
+                    .tag("result", "dropped")
+                    .register(registry);
+            Gauge.builder("arashbox.history.pending", history, ExecutionHistory::getPending)
+                    .description("Execution records waiting to be written")
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.pool.requests", containerPool, ContainerPool::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.pool.requests", containerPool, ContainerPool::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.cache.requests", resultCache, ExecutionResultCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.cache.requests", resultCache, ExecutionResultCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("arashbox.cache.size", resultCache, ExecutionResultCache::getSizeBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.build.cache.requests", buildCache, BuildArtifactCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.build.cache.requests", buildCache, BuildArtifactCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("arashbox.build.cache.size", buildCache, BuildArtifactCache::getSizeBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.snippet.cache.requests", snippetCache, SnippetCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.snippet.cache.requests", snippetCache, SnippetCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.snippet.cache.requests", snippetCache, SnippetCache::getCoalesced)
+                    .description("Misses that waited for a concurrent load of the same key")
+                    .tag("result", "coalesced")
+                    .register(registry);
+            Gauge.builder("arashbox.snippet.cache.entries", snippetCache, SnippetCache::getEntryCount)
+                    .register(registry);
+
+            FunctionCounter.builder("arashbox.blobs.writes", codeBlobStore, CodeBlobStore::getStored)
+                    .tag("result", "stored")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.blobs.writes", codeBlobStore, CodeBlobStore::getDeduplicated)
+                    .tag("result", "deduplicated")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.blobs.bytes", codeBlobStore, CodeBlobStore::getOriginalBytes)
+                    .description("Snippet code written, before dedup and compression")
+                    .baseUnit("bytes")
+                    .tag("kind", "original")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.blobs.bytes", codeBlobStore, CodeBlobStore::getStoredBytes)
+                    .description("Bytes inserted into code_blobs")
+                    .baseUnit("bytes")
+                    .tag("kind", "stored")
+                    .register(registry);
+
+            for (DockerHost host : dockerHosts.getHosts()) {
+                Gauge.builder("arashbox.docker.host.active", host, DockerHost::getActive)
+                        .description("Executions running on the Docker host")
+                        .tag("host", host.getName())
+                        .register(registry);
+                Gauge.builder("arashbox.docker.host.healthy", host, h -> h.isHealthy() ? 1 : 0)
+                        .tag("host", host.getName())
+                        .register(registry);
+            }
+
+            Gauge.builder("arashbox.ratelimit.tracked.clients", rateLimiter, RateLimiter::getTrackedClients)
+                    .description("Client keys currently held by the rate limiter")
+                    .register(registry);
+
+            Gauge.builder("arashbox.cluster.leases", inFlight, InFlightLimiter::getHeldLeases)
+                    .description("In-flight execution leases held by this node")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.cluster.fallbacks", sharedBuckets, SharedBuckets::getFallbacks)
+                    .description("Decisions made with per-node limits because the database was unreachable")
+                    .tag("limit", "rate")
+                    .register(registry);
+            FunctionCounter.builder("arashbox.cluster.fallbacks", inFlight, InFlightLimiter::getFallbacks)
+                    .description("Decisions made with per-node limits because the database was unreachable")
+                    .tag("limit", "in_flight")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.arashbox.config;
+
+import com.arashbox.dto.OutputFrame;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Applies the rate limits to inbound STOMP SENDs. A denied message is dropped before it
+ * reaches a controller; when the payload carries an execution sessionId the client is
+ * told on that execution's output topic.
+ */
+@Component
+public class RateLimitChannelInterceptor implements ChannelInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitChannelInterceptor(RateLimiter rateLimiter, @Lazy SimpMessagingTemplate messagingTemplate,
+                                       ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SEND || accessor.getDestination() == null) {
+            return message;
+        }
+
+        RateLimiter.Limit limit = rateLimiter.forDestination(accessor.getDestination());
+        if (limit == null) {
+            return message;
+        }
+
+        boolean authenticated = accessor.getUser() != null;
+        String client = authenticated ? accessor.getUser().getName() : clientIp(accessor);
+        if (limit.tryAcquire(client, authenticated)) {
+            return message;
+        }
+
+        notifyDenied(message, limit.describe(authenticated));
+        return null;
+    }
+
+    private void notifyDenied(Message<?> message, String description) {
+        if (!(message.getPayload() instanceof byte[] payload)) return;
+        try {
+            JsonNode sessionId = objectMapper.readTree(payload).get("sessionId");
+            if (sessionId == null || !sessionId.isTextual()) return;
+            String destination = "/topic/execution/" + sessionId.asText() + "/output";
+            messagingTemplate.convertAndSend(destination, OutputFrame.error("Rate limit exceeded. " + description + "."));
+            messagingTemplate.convertAndSend(destination, OutputFrame.exit(1, 0));
+        } catch (Exception e) {
+            // Not a JSON execution payload; dropping the message is enough
+        }
+    }
+
+    private static String clientIp(StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        Object ip = attributes != null ? attributes.get(WebSocketConfig.CLIENT_IP_ATTRIBUTE) : null;
+        return ip != null ? ip.toString() : accessor.getSessionId();
+    }
+}
@@ -8,70 +8,48 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private static final int MAX_REQUESTS = 10;
-    private static final long WINDOW_MS = 60_000; // 1 minute
+    // Resolved once in shouldNotFilter and read back by doFilterInternal
+    private static final String LIMIT_ATTRIBUTE = RateLimitFilter.class.getName() + ".limit";
 
-    private final ConcurrentHashMap<String, long[]> requestLog = new ConcurrentHashMap<>();
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        return !"/api/execute".equals(request.getRequestURI());
+        RateLimiter.Limit limit = rateLimiter.forPath(request.getRequestURI());
+        request.setAttribute(LIMIT_ATTRIBUTE, limit);
+        return limit == null;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String ip = getClientIp(request);
-        long now = System.currentTimeMillis();
-
-        long[] timestamps = requestLog.compute(ip, (key, existing) -> {
-            if (existing == null) {
-                long[] ts = new long[MAX_REQUESTS];
-                ts[0] = now;
-                return ts;
-            }
-            // Shift out expired entries, count active ones
-            long cutoff = now - WINDOW_MS;
-            long[] active = new long[MAX_REQUESTS];
-            int count = 0;
-            for (long t : existing) {
-                if (t > cutoff && count < MAX_REQUESTS) {
-                    active[count++] = t;
-                }
-            }
-            if (count < MAX_REQUESTS) {
-                active[count] = now;
-                return active;
-            }
-            return existing; // full — don't add
-        });
-
-        // Count how many timestamps are in the current window
-        long cutoff = now - WINDOW_MS;
-        int count = 0;
-        for (long t : timestamps) {
-            if (t > cutoff) count++;
-        }
+        RateLimiter.Limit limit = (RateLimiter.Limit) request.getAttribute(LIMIT_ATTRIBUTE);
+        boolean authenticated = request.getUserPrincipal() != null;
+        String client = authenticated ? request.getUserPrincipal().getName() : getClientIp(request);
 
-        if (count > MAX_REQUESTS) {
+        if (!limit.tryAcquire(client, authenticated)) {
             response.setStatus(429);
             response.setContentType("application/json");
-            response.getWriter().write("{\"error\":\"Rate limit exceeded. Max 10 requests per minute.\"}");
+            response.getWriter().write("{\"error\":\"Rate limit exceeded. " + limit.describe(authenticated) + ".\"}");
             return;
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private String getClientIp(HttpServletRequest request) {
+    public static String getClientIp(HttpServletRequest request) {
         String forwarded = request.getHeader("X-Forwarded-For");
         if (forwarded != null && !forwarded.isEmpty()) {
-            return forwarded.split(",")[0].trim();
+            int comma = forwarded.indexOf(',');
+            return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
         }
         return request.getRemoteAddr();
     }
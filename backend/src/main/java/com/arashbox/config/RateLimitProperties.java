@@ -0,0 +1,53 @@
+package com.arashbox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "arashbox.rate-limit")
+public class RateLimitProperties {
+
+    private long idleEvictionSeconds = 300;
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    public static class Rule {
+        // Ant-style HTTP paths and STOMP destinations this rule applies to
+        private List<String> paths = new ArrayList<>();
+        private List<String> destinations = new ArrayList<>();
+        // Burst size and sustained rate for anonymous clients (keyed by IP)
+        private int capacity = 10;
+        private int refillPerMinute = 10;
+        // Same for authenticated users (keyed by user); falls back to the anonymous limits
+        private Integer userCapacity;
+        private Integer userRefillPerMinute;
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public List<String> getDestinations() { return destinations; }
+        public void setDestinations(List<String> destinations) { this.destinations = destinations; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public int getRefillPerMinute() { return refillPerMinute; }
+        public void setRefillPerMinute(int refillPerMinute) { this.refillPerMinute = refillPerMinute; }
+
+        public Integer getUserCapacity() { return userCapacity; }
+        public void setUserCapacity(Integer userCapacity) { this.userCapacity = userCapacity; }
+
+        public Integer getUserRefillPerMinute() { return userRefillPerMinute; }
+        public void setUserRefillPerMinute(Integer userRefillPerMinute) { this.userRefillPerMinute = userRefillPerMinute; }
+    }
+
+    public long getIdleEvictionSeconds() { return idleEvictionSeconds; }
+    public void setIdleEvictionSeconds(long idleEvictionSeconds) { this.idleEvictionSeconds = idleEvictionSeconds; }
+
+    public Map<String, Rule> getRules() { return rules; }
+    public void setRules(Map<String, Rule> rules) { this.rules = rules; }
+}
@@ -0,0 +1,188 @@
+package com.arashbox.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiting shared by the HTTP filter and the STOMP interceptor.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding its theoretical arrival time
+ * (the GCRA form of a token bucket): a request is admitted if, after adding one emission
+ * interval, the bucket is no more than {@code capacity} intervals ahead of now. Admission
+ * is one CAS with no locking or allocation; a bucket is only allocated the first time a
+ * key is seen and evicted once it has been full and idle for {@code idle-eviction-seconds}.
+ * Path and destination patterns are parsed once at startup.
+ *
+ * <p>In cluster mode the buckets live in the database instead ({@link SharedBuckets}),
+ * so a limit holds across all nodes rather than per node.
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final SharedBuckets shared;
+    private final List<Limit> limits = new ArrayList<>();
+    private final List<Route> paths = new ArrayList<>();
+    private final List<Route> destinations = new ArrayList<>();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "rate-limit-evict");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, null);
+    }
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, SharedBuckets shared) {
+        this.properties = properties;
+        this.shared = shared != null && shared.isEnabled() ? shared : null;
+        PathPatternParser parser = new PathPatternParser();
+        properties.getRules().forEach((name, rule) -> {
+            Limit limit = new Limit(name, rule, this.shared);
+            limits.add(limit);
+            rule.getPaths().forEach(pattern -> paths.add(new Route(parser.parse(pattern), limit)));
+            rule.getDestinations().forEach(pattern -> destinations.add(new Route(parser.parse(pattern), limit)));
+        });
+    }
+
+    @PostConstruct
+    public void startEviction() {
+        long interval = Math.max(1, properties.getIdleEvictionSeconds() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /** The limit guarding an HTTP path, or null if it isn't limited. */
+    public Limit forPath(String path) {
+        return match(paths, path);
+    }
+
+    /** The limit guarding a STOMP destination, or null if it isn't limited. */
+    public Limit forDestination(String destination) {
+        return match(destinations, destination);
+    }
+
+    private static Limit match(List<Route> routes, String path) {
+        if (routes.isEmpty()) return null;
+        PathContainer container = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.pattern.matches(container)) return route.limit;
+        }
+        return null;
+    }
+
+    public int getTrackedClients() {
+        int count = 0;
+        for (Limit limit : limits) {
+            count += limit.anonymous.buckets.size() + limit.users.buckets.size();
+        }
+        return count;
+    }
+
+    private void evictIdle() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+        long now = System.nanoTime();
+        for (Limit limit : limits) {
+            limit.anonymous.evictIdle(now, idleNanos);
+            limit.users.evictIdle(now, idleNanos);
+        }
+        if (shared != null) {
+            shared.evictIdle(TimeUnit.NANOSECONDS.toMicros(idleNanos));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    private record Route(PathPattern pattern, Limit limit) {}
+
+    public static class Limit {
+        private final String name;
+        private final Buckets anonymous;
+        private final Buckets users;
+
+        Limit(String name, RateLimitProperties.Rule rule, SharedBuckets shared) {
+            this.name = name;
+            this.anonymous = new Buckets(name + ":ip:", shared, rule.getCapacity(), rule.getRefillPerMinute());
+            this.users = new Buckets(name + ":user:", shared,
+                    rule.getUserCapacity() != null ? rule.getUserCapacity() : rule.getCapacity(),
+                    rule.getUserRefillPerMinute() != null ? rule.getUserRefillPerMinute() : rule.getRefillPerMinute());
+        }
+
+        /** Takes a token for the client: a user name when authenticated, otherwise the IP. */
+        public boolean tryAcquire(String client, boolean authenticated) {
+            return (authenticated ? users : anonymous).tryAcquire(client);
+        }
+
+        public String getName() { return name; }
+
+        public String describe(boolean authenticated) {
+            Buckets buckets = authenticated ? users : anonymous;
+            return "Max " + buckets.refillPerMinute + " requests per minute";
+        }
+    }
+
+    private static class Buckets {
+        final String prefix;
+        final SharedBuckets shared;
+        final int refillPerMinute;
+        final long intervalNanos;
+        final long burstNanos;
+        final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        Buckets(String prefix, SharedBuckets shared, int capacity, int refillPerMinute) {
+            this.prefix = prefix;
+            this.shared = shared;
+            this.refillPerMinute = refillPerMinute;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+            this.burstNanos = intervalNanos * Math.max(1, capacity);
+        }
+
+        boolean tryAcquire(String key) {
+            if (shared != null) {
+                return shared.tryAcquire(prefix + key, TimeUnit.NANOSECONDS.toMicros(intervalNanos),
+                        TimeUnit.NANOSECONDS.toMicros(burstNanos), () -> tryAcquireLocal(key));
+            }
+            return tryAcquireLocal(key);
+        }
+
+        boolean tryAcquireLocal(String key) {
+            long now = System.nanoTime();
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long tat = bucket.get();
+                long next = Math.max(tat, now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (bucket.compareAndSet(tat, next)) {
+                    return true;
+                }
+            }
+        }
+
+        // A bucket whose arrival time is in the past is full again, so dropping it loses nothing
+        void evictIdle(long now, long idleNanos) {
+            buckets.values().removeIf(bucket -> now - bucket.get() > idleNanos);
+        }
+    }
+}
@@ -21,9 +21,9 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/execute", "/api/health").permitAll()
+                .requestMatchers("/api/execute", "/api/execute/**", "/api/health").permitAll()
                 .requestMatchers("/ws/**").permitAll()
-                .requestMatchers("/api/snippets/**").authenticated()
+                .requestMatchers("/api/snippets/**", "/api/executions/**").authenticated()
                 .anyRequest().permitAll()
             )
             .oauth2Login(oauth2 -> oauth2
@@ -0,0 +1,113 @@
+package com.arashbox.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Rate-limit buckets kept in the database in cluster mode, so every node draws from the
+ * same bucket. A bucket is the same GCRA arrival time as the in-memory one, and taking a
+ * token is one conditional UPDATE: the row only moves if the token is there, so concurrent
+ * nodes can't overdraw it. Once a bucket is found empty, the node remembers until when
+ * and turns that client away locally, so a client hammering a limit costs no round-trips.
+ * Times are epoch microseconds from each node's clock, which NTP keeps close enough.
+ */
+@Component
+public class SharedBuckets {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedBuckets.class);
+
+    private static final String ADMIT = """
+            update rate_limit_buckets set tat = greatest(tat, ?) + ?
+            where bucket_key = ? and greatest(tat, ?) + ? - ? <= ?""";
+    private static final String INSERT = "insert into rate_limit_buckets (bucket_key, tat) values (?, ?)";
+    private static final String SELECT_TAT = "select tat from rate_limit_buckets where bucket_key = ?";
+    private static final String DELETE_IDLE = "delete from rate_limit_buckets where tat < ?";
+
+    private static final long WARNING_INTERVAL_MS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Bucket key -> System.nanoTime() before which the bucket is known to be empty
+    private final ConcurrentHashMap<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong lastWarning = new AtomicLong();
+
+    @Value("${arashbox.cluster.enabled:false}")
+    private boolean enabled;
+
+    public SharedBuckets(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /** Requests decided by the node's own bucket because the database was unreachable. */
+    public long getFallbacks() { return fallbacks.get(); }
+
+    /**
+     * Takes a token from the shared bucket. If the database can't be reached the node's
+     * own bucket decides instead, so an outage loosens the limits rather than failing requests.
+     */
+    boolean tryAcquire(String key, long intervalMicros, long burstMicros, BooleanSupplier fallback) {
+        Long blocked = blockedUntil.get(key);
+        if (blocked != null) {
+            if (blocked - System.nanoTime() > 0) return false;
+            blockedUntil.remove(key, blocked);
+        }
+
+        try {
+            long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            if (admit(key, now, intervalMicros, burstMicros)) return true;
+            try {
+                jdbcTemplate.update(INSERT, key, now + intervalMicros);
+                return true;
+            } catch (DuplicateKeyException e) {
+                // The bucket exists and is empty, or another node created it just now
+            }
+            if (admit(key, now, intervalMicros, burstMicros)) return true;
+
+            // The next token is there once tat + interval - now fits in the burst again
+            List<Long> tat = jdbcTemplate.queryForList(SELECT_TAT, Long.class, key);
+            if (!tat.isEmpty()) {
+                long waitMicros = tat.get(0) + intervalMicros - burstMicros - now;
+                if (waitMicros > 0) {
+                    blockedUntil.put(key, System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(waitMicros));
+                }
+            }
+            return false;
+        } catch (DataAccessException e) {
+            fallbacks.incrementAndGet();
+            long now = System.currentTimeMillis();
+            long last = lastWarning.get();
+            if (now - last > WARNING_INTERVAL_MS && lastWarning.compareAndSet(last, now)) {
+                log.warn("Shared rate limits unavailable, applying per-node limits", e);
+            }
+            return fallback.getAsBoolean();
+        }
+    }
+
+    private boolean admit(String key, long now, long intervalMicros, long burstMicros) {
+        return jdbcTemplate.update(ADMIT, now, intervalMicros, key, now, intervalMicros, now, burstMicros) == 1;
+    }
+
+    // Buckets whose arrival time has long passed are full again, as for the in-memory ones
+    void evictIdle(long idleMicros) {
+        long nanoNow = System.nanoTime();
+        blockedUntil.values().removeIf(until -> until - nanoNow <= 0);
+        try {
+            jdbcTemplate.update(DELETE_IDLE, TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()) - idleMicros);
+        } catch (DataAccessException e) {
+            log.debug("Failed to evict idle shared buckets", e);
+        }
+    }
+}
@@ -1,30 +1,167 @@
 package com.arashbox.controller;
 
+import com.arashbox.config.RateLimitFilter;
+import com.arashbox.dto.BatchExecutionRequest;
+import com.arashbox.dto.BatchExecutionResponse;
 import com.arashbox.dto.ExecutionRequest;
 import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.dto.OutputFrame;
 import com.arashbox.service.CodeExecutionService;
+import com.arashbox.service.ExecutionHandle;
+import com.arashbox.service.ExecutionScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
 public class ExecutionController {
 
+    private static final Logger log = LoggerFactory.getLogger(ExecutionController.class);
+
     private final CodeExecutionService codeExecutionService;
+    private final ExecutionScheduler executionScheduler;
+    private final HealthEndpoint healthEndpoint;
+    private final ObjectMapper objectMapper;
+    private final Duration queueTimeout;
+
+    // Streamed output is capped at 64KB, so this only runs out for a client that isn't reading
+    private static final long STREAM_BUFFER_BYTES = 1024 * 1024;
 
-    public ExecutionController(CodeExecutionService codeExecutionService) {
+    public ExecutionController(CodeExecutionService codeExecutionService,
+                               ExecutionScheduler executionScheduler,
+                               HealthEndpoint healthEndpoint,
+                               ObjectMapper objectMapper,
+                               @Value("${spring.mvc.async.request-timeout:60s}") Duration queueTimeout) {
         this.codeExecutionService = codeExecutionService;
+        this.executionScheduler = executionScheduler;
+        this.healthEndpoint = healthEndpoint;
+        this.objectMapper = objectMapper;
+        this.queueTimeout = queueTimeout;
     }
 
     @PostMapping("/execute")
-    public ResponseEntity<ExecutionResponse> execute(@Valid @RequestBody ExecutionRequest request) {
-        ExecutionResponse response = codeExecutionService.execute(request);
-        return ResponseEntity.ok(response);
+    public DeferredResult<ResponseEntity<ExecutionResponse>> execute(@Valid @RequestBody ExecutionRequest request,
+                                                                     HttpServletRequest httpRequest) {
+        ExecutionHandle handle = handle(httpRequest);
+        return submit(request, handle, httpRequest, () -> codeExecutionService.execute(request, handle));
+    }
+
+    @PostMapping("/execute/batch")
+    public DeferredResult<ResponseEntity<BatchExecutionResponse>> executeBatch(
+            @Valid @RequestBody BatchExecutionRequest request, HttpServletRequest httpRequest) {
+        ExecutionHandle handle = handle(httpRequest);
+        return submit(request, handle, httpRequest, () -> codeExecutionService.executeBatch(request, handle, result -> {}));
+    }
+
+    // The response waits for the queue (up to the usual async request timeout) plus the run's
+    // own deadline, so a large batch isn't cut off partway. A request that times out or fails
+    // anyway stops its run rather than leaving it to finish for nobody.
+    private <T> DeferredResult<ResponseEntity<T>> submit(ExecutionRequest request, ExecutionHandle handle,
+                                                         HttpServletRequest httpRequest, Supplier<T> task) {
+        DeferredResult<ResponseEntity<T>> result =
+                new DeferredResult<>(queueTimeout.toMillis() + codeExecutionService.deadlineMillis(request));
+        result.onTimeout(() -> handle.cancel("request timed out"));
+        result.onError(e -> handle.cancel("request failed"));
+        try {
+            executionScheduler.submit(clientKey(httpRequest), task, position -> {})
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            result.setErrorResult(e instanceof CompletionException && e.getCause() != null
+                                    ? e.getCause() : e);
+                        } else {
+                            result.setResult(ResponseEntity.ok(response));
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+        }
+        return result;
+    }
+
+    /**
+     * Streams the run's frames as they are produced: Server-Sent Events when the client
+     * accepts {@code text/event-stream}, NDJSON for any other Accept header (including
+     * {@code application/json}) rather than a 406. The frames are the WebSocket ones.
+     */
+    @PostMapping("/execute/stream")
+    public ResponseEntity<StreamingResponseBody> executeStream(@Valid @RequestBody ExecutionRequest request,
+                                                               HttpServletRequest httpRequest) {
+        String accept = httpRequest.getHeader(HttpHeaders.ACCEPT);
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        FrameStream stream = new FrameStream(sse ? FrameStream.Format.SSE : FrameStream.Format.NDJSON,
+                objectMapper, STREAM_BUFFER_BYTES);
+        ExecutionHandle handle = handle(httpRequest);
+        stream.onDisconnect(() -> handle.cancel("client disconnected"));
+
+        try {
+            executionScheduler.submit(clientKey(httpRequest), () -> {
+                        codeExecutionService.executeStreaming(request, null, handle, stream);
+                        return null;
+                    }, position -> stream.accept(OutputFrame.queued(position)))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.error("Streaming execution failed", e);
+                            stream.accept(OutputFrame.error("Internal error"));
+                        }
+                        stream.complete();
+                    });
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                // Keeps nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(stream);
     }
 
     @GetMapping("/health")
     public ResponseEntity<String> health() {
-        return ResponseEntity.ok("OK");
+        Status status = healthEndpoint.health().getStatus();
+        return ResponseEntity.status(Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Status.UP.equals(status) ? "OK" : status.getCode());
+    }
+
+    // Who is running it, for the execution history
+    private static ExecutionHandle handle(HttpServletRequest request) {
+        return new ExecutionHandle(userId(request.getUserPrincipal()), RateLimitFilter.getClientIp(request));
+    }
+
+    /** The id snippets are stored under, or null for an anonymous client. */
+    static String userId(Principal principal) {
+        if (principal instanceof OAuth2AuthenticationToken token) {
+            Object id = token.getPrincipal().getAttribute("id");
+            return id != null ? id.toString() : null;
+        }
+        return null;
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        if (request.getUserPrincipal() != null) {
+            return "user:" + request.getUserPrincipal().getName();
+        }
+        return "ip:" + RateLimitFilter.getClientIp(request);
     }
 }
@@ -0,0 +1,32 @@
+package com.arashbox.controller;
+
+import com.arashbox.dto.ExecutionRecordPage;
+import com.arashbox.service.ExecutionHistory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/executions")
+public class ExecutionHistoryController {
+
+    private final ExecutionHistory executionHistory;
+
+    public ExecutionHistoryController(ExecutionHistory executionHistory) {
+        this.executionHistory = executionHistory;
+    }
+
+    @GetMapping
+    public ResponseEntity<ExecutionRecordPage> getMyExecutions(
+            @AuthenticationPrincipal OAuth2User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        String userId = user.getAttribute("id").toString();
+        try {
+            return ResponseEntity.ok(executionHistory.findByUserId(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.arashbox.controller;
 
+import com.arashbox.config.WebSocketConfig;
 import com.arashbox.dto.OutputFrame;
+import com.arashbox.dto.StdinChunk;
+import com.arashbox.dto.WsBatchExecuteRequest;
 import com.arashbox.dto.WsExecuteRequest;
 import com.arashbox.service.CodeExecutionService;
+import com.arashbox.service.ExecutionHandle;
+import com.arashbox.service.ExecutionScheduler;
+import com.arashbox.service.StdinPipe;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Controller
 public class ExecutionWebSocketController {
@@ -20,14 +34,24 @@ public class ExecutionWebSocketController {
     private static final Logger log = LoggerFactory.getLogger(ExecutionWebSocketController.class);
 
     private final CodeExecutionService codeExecutionService;
+    private final ExecutionScheduler executionScheduler;
     private final SimpMessagingTemplate messagingTemplate;
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
-    private final ConcurrentHashMap<String, Boolean> activeSessions = new ConcurrentHashMap<>();
+    private final Validator validator;
+    private static final int STDIN_BUFFER_BYTES = 65_536;
+    private static final long STDIN_WRITE_TIMEOUT_MS = 1_000;
+
+    // Running executions keyed "<STOMP session>:<execution sessionId>"
+    private final ConcurrentHashMap<String, ExecutionHandle> activeSessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StdinPipe> stdinPipes = new ConcurrentHashMap<>();
 
     public ExecutionWebSocketController(CodeExecutionService codeExecutionService,
-                                        SimpMessagingTemplate messagingTemplate) {
+                                        ExecutionScheduler executionScheduler,
+                                        SimpMessagingTemplate messagingTemplate,
+                                        Validator validator) {
         this.codeExecutionService = codeExecutionService;
+        this.executionScheduler = executionScheduler;
         this.messagingTemplate = messagingTemplate;
+        this.validator = validator;
     }
 
     @MessageMapping("/execute")
@@ -40,9 +64,12 @@ public class ExecutionWebSocketController {
             return;
         }
 
+        if (!isValid(request, "/topic/execution/" + sessionId + "/output")) return;
+
         // Prevent duplicate executions per STOMP session
         String activeKey = stompSessionId + ":" + sessionId;
-        if (activeSessions.putIfAbsent(activeKey, Boolean.TRUE) != null) {
+        ExecutionHandle handle = handle(headerAccessor);
+        if (activeSessions.putIfAbsent(activeKey, handle) != null) {
             messagingTemplate.convertAndSend(
                     "/topic/execution/" + sessionId + "/output",
                     OutputFrame.error("Execution already in progress")
@@ -52,20 +79,151 @@ public class ExecutionWebSocketController {
 
         String destination = "/topic/execution/" + sessionId + "/output";
 
-        executor.submit(() -> {
+        StdinPipe input = request.isInteractive() ? StdinPipe.open(STDIN_BUFFER_BYTES, request.getStdin()) : null;
+        if (input != null) {
+            stdinPipes.put(activeKey, input);
+        }
+
+        try {
+            executionScheduler.submit(clientKey(headerAccessor), () -> {
+                codeExecutionService.executeStreaming(request, input, handle,
+                        frame -> messagingTemplate.convertAndSend(destination, frame));
+                return null;
+            }, position -> messagingTemplate.convertAndSend(destination, OutputFrame.queued(position)))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.error("WebSocket execution failed for session {}", sessionId, e);
+                            messagingTemplate.convertAndSend(destination, OutputFrame.error("Internal error"));
+                        }
+                        stdinPipes.remove(activeKey);
+                        activeSessions.remove(activeKey, handle);
+                    });
+        } catch (RejectedExecutionException e) {
+            stdinPipes.remove(activeKey);
+            activeSessions.remove(activeKey, handle);
+            messagingTemplate.convertAndSend(destination, OutputFrame.error("Server is busy, try again shortly"));
+            messagingTemplate.convertAndSend(destination, OutputFrame.exit(1, 0));
+        }
+    }
+
+    // Streams a "case" frame per finished test case, then an exit frame that is 0 only
+    // if every case ran and succeeded
+    @MessageMapping("/execute/batch")
+    public void executeBatch(WsBatchExecuteRequest request, SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = request.getSessionId();
+
+        if (sessionId == null || sessionId.isBlank()) {
+            log.warn("Received batch request with no sessionId");
+            return;
+        }
+
+        String activeKey = headerAccessor.getSessionId() + ":" + sessionId;
+        String destination = "/topic/execution/" + sessionId + "/output";
+        if (!isValid(request, destination)) return;
+
+        ExecutionHandle handle = handle(headerAccessor);
+        if (activeSessions.putIfAbsent(activeKey, handle) != null) {
+            messagingTemplate.convertAndSend(destination, OutputFrame.error("Execution already in progress"));
+            return;
+        }
+
+        try {
+            executionScheduler.submit(clientKey(headerAccessor), () -> codeExecutionService.executeBatch(request, handle,
+                            result -> messagingTemplate.convertAndSend(destination, OutputFrame.testCase(result))),
+                    position -> messagingTemplate.convertAndSend(destination, OutputFrame.queued(position)))
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            log.error("WebSocket batch execution failed for session {}", sessionId, e);
+                            messagingTemplate.convertAndSend(destination, OutputFrame.error("Internal error"));
+                        } else {
+                            if (response.getError() != null) {
+                                messagingTemplate.convertAndSend(destination, OutputFrame.error(response.getError()));
+                            }
+                            boolean allSucceeded = response.getError() == null
+                                    && response.getSucceeded() == request.getCases().size();
+                            messagingTemplate.convertAndSend(destination,
+                                    OutputFrame.exit(allSucceeded ? 0 : 1, response.getExecutionTimeMs()));
+                        }
+                        activeSessions.remove(activeKey, handle);
+                    });
+        } catch (RejectedExecutionException e) {
+            activeSessions.remove(activeKey, handle);
+            messagingTemplate.convertAndSend(destination, OutputFrame.error("Server is busy, try again shortly"));
+            messagingTemplate.convertAndSend(destination, OutputFrame.exit(1, 0));
+        }
+    }
+
+    @MessageMapping("/execute/{sessionId}/stdin")
+    public void stdin(@DestinationVariable String sessionId, StdinChunk chunk,
+                      SimpMessageHeaderAccessor headerAccessor) {
+        // Keyed by STOMP session too, so only the client that started the run can feed it
+        StdinPipe pipe = stdinPipes.get(headerAccessor.getSessionId() + ":" + sessionId);
+        if (pipe == null) return;
+
+        if (chunk.getData() != null) {
+            boolean accepted;
             try {
-                codeExecutionService.executeStreaming(
-                        request.getCode(),
-                        request.getLanguage(),
-                        request.getStdin(),
-                        frame -> messagingTemplate.convertAndSend(destination, frame)
-                );
-            } catch (Exception e) {
-                log.error("WebSocket execution failed for session {}", sessionId, e);
-                messagingTemplate.convertAndSend(destination, OutputFrame.error("Internal error"));
-            } finally {
-                activeSessions.remove(activeKey);
+                accepted = pipe.write(chunk.getData().getBytes(StandardCharsets.UTF_8), STDIN_WRITE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+            if (!accepted) {
+                messagingTemplate.convertAndSend("/topic/execution/" + sessionId + "/output",
+                        OutputFrame.error("Input dropped: stdin buffer is full or closed"));
+            }
+        }
+        if (chunk.isEof()) {
+            pipe.closeInput();
+        }
+    }
+
+    @MessageMapping("/execute/{sessionId}/cancel")
+    public void cancel(@DestinationVariable String sessionId, SimpMessageHeaderAccessor headerAccessor) {
+        // Keyed by STOMP session too, so only the client that started the run can stop it
+        ExecutionHandle handle = activeSessions.get(headerAccessor.getSessionId() + ":" + sessionId);
+        if (handle != null) {
+            handle.cancel("cancelled by client");
+        }
+    }
+
+    // A closed tab or dropped connection leaves nobody to read the output
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + ":";
+        activeSessions.forEach((key, handle) -> {
+            if (key.startsWith(prefix)) {
+                handle.cancel("client disconnected");
             }
         });
     }
+
+    // The REST endpoints get these constraints from @Valid; STOMP payloads are checked here
+    private boolean isValid(Object request, String destination) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) return true;
+
+        String message = violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        messagingTemplate.convertAndSend(destination, OutputFrame.error("Invalid request: " + message));
+        messagingTemplate.convertAndSend(destination, OutputFrame.exit(1, 0));
+        return false;
+    }
+
+    private static ExecutionHandle handle(SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        Object ip = attributes != null ? attributes.get(WebSocketConfig.CLIENT_IP_ATTRIBUTE) : null;
+        return new ExecutionHandle(ExecutionController.userId(headerAccessor.getUser()), ip != null ? ip.toString() : null);
+    }
+
+    private static String clientKey(SimpMessageHeaderAccessor headerAccessor) {
+        if (headerAccessor.getUser() != null) {
+            return "user:" + headerAccessor.getUser().getName();
+        }
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        Object ip = attributes != null ? attributes.get(WebSocketConfig.CLIENT_IP_ATTRIBUTE) : null;
+        return "ip:" + (ip != null ? ip : headerAccessor.getSessionId());
+    }
 }
@@ -0,0 +1,107 @@
+package com.arashbox.controller;
+
+import com.arashbox.dto.OutputFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Writes a run's frames to an HTTP response as they are produced, as SSE events or NDJSON
+ * lines. Frames are encoded and queued without ever blocking the producer, which may be the
+ * shared output-flush thread. Streamed output is capped, so the queue normally holds all
+ * of it; a client that falls more than {@code maxQueuedBytes} behind gets an error frame
+ * and the end of the response, and {@code onDisconnect} runs, as it does when the client
+ * goes away, so the caller can stop the run.
+ */
+class FrameStream implements StreamingResponseBody, Consumer<OutputFrame> {
+
+    enum Format { SSE, NDJSON }
+
+    private static final byte[] END = new byte[0];
+
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final long maxQueuedBytes;
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private volatile Runnable onDisconnect = () -> {};
+    private volatile boolean disconnected;
+
+    FrameStream(Format format, ObjectMapper objectMapper, long maxQueuedBytes) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    void onDisconnect(Runnable onDisconnect) {
+        this.onDisconnect = onDisconnect;
+    }
+
+    @Override
+    public void accept(OutputFrame frame) {
+        if (disconnected) return;
+        byte[] encoded = encode(frame);
+        if (queuedBytes.addAndGet(encoded.length) > maxQueuedBytes) {
+            disconnect(encode(OutputFrame.error("Stream closed: client is not reading fast enough")));
+            return;
+        }
+        queue.add(encoded);
+    }
+
+    /** Ends the response once the queued frames are written. */
+    void complete() {
+        queue.add(END);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            while (true) {
+                byte[] item = queue.take();
+                if (item == END) break;
+                out.write(item);
+                queuedBytes.addAndGet(-item.length);
+                // Flush once the burst is written rather than per frame
+                if (queue.isEmpty()) out.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            disconnect(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            disconnect(null);
+        }
+    }
+
+    // Drops what's queued and wakes the writer to end the response, after a last frame if given
+    private void disconnect(byte[] lastFrame) {
+        synchronized (this) {
+            if (disconnected) return;
+            disconnected = true;
+            queue.clear();
+            if (lastFrame != null) queue.add(lastFrame);
+            queue.add(END);
+        }
+        onDisconnect.run();
+    }
+
+    private byte[] encode(OutputFrame frame) {
+        try {
+            String json = objectMapper.writeValueAsString(frame);
+            String text = format == Format.SSE
+                    ? "event: " + frame.getType() + "\ndata: " + json + "\n\n"
+                    : json + "\n";
+            return text.getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
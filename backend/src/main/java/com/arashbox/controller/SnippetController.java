@@ -1,5 +1,6 @@
 package com.arashbox.controller;
 
+import com.arashbox.dto.SnippetPage;
 import com.arashbox.model.Snippet;
 import com.arashbox.service.SnippetService;
 import jakarta.validation.Valid;
@@ -8,8 +9,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/snippets")
 public class SnippetController {
@@ -21,9 +20,16 @@ public class SnippetController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Snippet>> getMySnippets(@AuthenticationPrincipal OAuth2User user) {
+    public ResponseEntity<SnippetPage> getMySnippets(
+            @AuthenticationPrincipal OAuth2User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         String userId = user.getAttribute("id").toString();
-        return ResponseEntity.ok(snippetService.findByUserId(userId));
+        try {
+            return ResponseEntity.ok(snippetService.findByUserId(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -0,0 +1,25 @@
+package com.arashbox.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** One program run against several inputs; each case brings its own stdin, so {@code stdin} is ignored. */
+public class BatchExecutionRequest extends ExecutionRequest {
+
+    @Valid
+    @NotEmpty
+    @Size(max = 100, message = "A batch may contain at most 100 test cases")
+    private List<TestCase> cases;
+
+    // Skip the remaining cases once one fails (non-zero exit, timeout or wrong output)
+    private boolean stopOnFailure = true;
+
+    public List<TestCase> getCases() { return cases; }
+    public void setCases(List<TestCase> cases) { this.cases = cases; }
+
+    public boolean isStopOnFailure() { return stopOnFailure; }
+    public void setStopOnFailure(boolean stopOnFailure) { this.stopOnFailure = stopOnFailure; }
+}
@@ -0,0 +1,46 @@
+package com.arashbox.dto;
+
+import java.util.List;
+
+public class BatchExecutionResponse {
+
+    private List<TestCaseResult> results;
+    // Cases that exited 0 within the time limit and, if given, matched the expected output
+    private int succeeded;
+    private int failed;
+    // Cases not run because an earlier one failed or the batch was aborted
+    private int skipped;
+    private long executionTimeMs;
+    // Compile output or the reason the batch was aborted; null when every case got to run
+    private String error;
+
+    public BatchExecutionResponse() {}
+
+    public BatchExecutionResponse(List<TestCaseResult> results, int succeeded, int failed, int skipped,
+                                  long executionTimeMs, String error) {
+        this.results = results;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.skipped = skipped;
+        this.executionTimeMs = executionTimeMs;
+        this.error = error;
+    }
+
+    public List<TestCaseResult> getResults() { return results; }
+    public void setResults(List<TestCaseResult> results) { this.results = results; }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public int getSkipped() { return skipped; }
+    public void setSkipped(int skipped) { this.skipped = skipped; }
+
+    public long getExecutionTimeMs() { return executionTimeMs; }
+    public void setExecutionTimeMs(long executionTimeMs) { this.executionTimeMs = executionTimeMs; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
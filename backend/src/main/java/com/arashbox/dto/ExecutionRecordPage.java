@@ -0,0 +1,25 @@
+package com.arashbox.dto;
+
+import com.arashbox.model.ExecutionRecord;
+
+import java.util.List;
+
+/** One page of a user's execution history, newest first; {@code nextCursor} is null on the last one. */
+public class ExecutionRecordPage {
+
+    private List<ExecutionRecord> items;
+    private String nextCursor;
+
+    public ExecutionRecordPage() {}
+
+    public ExecutionRecordPage(List<ExecutionRecord> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExecutionRecord> getItems() { return items; }
+    public void setItems(List<ExecutionRecord> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
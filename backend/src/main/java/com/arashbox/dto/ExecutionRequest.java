@@ -1,8 +1,12 @@
 package com.arashbox.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 public class ExecutionRequest {
 
     @NotBlank
@@ -15,6 +19,19 @@ public class ExecutionRequest {
     @Size(max = 65_536, message = "Stdin must not exceed 64KB")
     private String stdin;
 
+    private boolean noCache;
+
+    // Extra project files placed next to the main file (code), which is main.<ext>
+    @Valid
+    @Size(max = 256, message = "A project may contain at most 256 files")
+    private List<ProjectFile> files;
+
+    // File to run, relative to the project root; defaults to the main file
+    @Size(max = 90)
+    @Pattern(regexp = "^(?!.*(^|/)\\.\\.?(/|$))[A-Za-z0-9._-]+(/[A-Za-z0-9._-]+)*$",
+            message = "Entrypoint must be a relative project path")
+    private String entrypoint;
+
     public String getCode() { return code; }
     public void setCode(String code) { this.code = code; }
 
@@ -23,4 +40,13 @@ public class ExecutionRequest {
 
     public String getStdin() { return stdin; }
     public void setStdin(String stdin) { this.stdin = stdin; }
+
+    public boolean isNoCache() { return noCache; }
+    public void setNoCache(boolean noCache) { this.noCache = noCache; }
+
+    public List<ProjectFile> getFiles() { return files; }
+    public void setFiles(List<ProjectFile> files) { this.files = files; }
+
+    public String getEntrypoint() { return entrypoint; }
+    public void setEntrypoint(String entrypoint) { this.entrypoint = entrypoint; }
 }
@@ -6,6 +6,12 @@ public class ExecutionResponse {
     private String stderr;
     private int exitCode;
     private long executionTimeMs;
+    // Bytes dropped from the middle of each stream to keep its head and tail within the capture limit
+    private long stdoutOmittedBytes;
+    private long stderrOmittedBytes;
+    private boolean timedOut;
+    // Null when it couldn't be read, e.g. the run failed before it started
+    private ResourceUsage usage;
 
     public ExecutionResponse() {}
 
@@ -16,6 +22,13 @@ public class ExecutionResponse {
         this.executionTimeMs = executionTimeMs;
     }
 
+    public ExecutionResponse(String stdout, String stderr, int exitCode, long executionTimeMs,
+                             long stdoutOmittedBytes, long stderrOmittedBytes) {
+        this(stdout, stderr, exitCode, executionTimeMs);
+        this.stdoutOmittedBytes = stdoutOmittedBytes;
+        this.stderrOmittedBytes = stderrOmittedBytes;
+    }
+
     public String getStdout() { return stdout; }
     public void setStdout(String stdout) { this.stdout = stdout; }
 
@@ -27,4 +40,16 @@ public class ExecutionResponse {
 
     public long getExecutionTimeMs() { return executionTimeMs; }
     public void setExecutionTimeMs(long executionTimeMs) { this.executionTimeMs = executionTimeMs; }
+
+    public long getStdoutOmittedBytes() { return stdoutOmittedBytes; }
+    public void setStdoutOmittedBytes(long stdoutOmittedBytes) { this.stdoutOmittedBytes = stdoutOmittedBytes; }
+
+    public long getStderrOmittedBytes() { return stderrOmittedBytes; }
+    public void setStderrOmittedBytes(long stderrOmittedBytes) { this.stderrOmittedBytes = stderrOmittedBytes; }
+
+    public boolean isTimedOut() { return timedOut; }
+    public void setTimedOut(boolean timedOut) { this.timedOut = timedOut; }
+
+    public ResourceUsage getUsage() { return usage; }
+    public void setUsage(ResourceUsage usage) { this.usage = usage; }
 }
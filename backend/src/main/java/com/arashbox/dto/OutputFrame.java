@@ -7,6 +7,10 @@ public class OutputFrame {
     private Integer exitCode;
     private Long executionTimeMs;
     private String message;
+    private Integer position;
+    private TestCaseResult result;
+    private Boolean timedOut;
+    private ResourceUsage usage;
 
     private OutputFrame() {}
 
@@ -32,6 +36,13 @@ public class OutputFrame {
         return f;
     }
 
+    public static OutputFrame exit(int exitCode, long executionTimeMs, boolean timedOut, ResourceUsage usage) {
+        OutputFrame f = exit(exitCode, executionTimeMs);
+        f.timedOut = timedOut;
+        f.usage = usage;
+        return f;
+    }
+
     public static OutputFrame error(String message) {
         OutputFrame f = new OutputFrame();
         f.type = "error";
@@ -39,9 +50,27 @@ public class OutputFrame {
         return f;
     }
 
+    public static OutputFrame queued(int position) {
+        OutputFrame f = new OutputFrame();
+        f.type = "queued";
+        f.position = position;
+        return f;
+    }
+
+    public static OutputFrame testCase(TestCaseResult result) {
+        OutputFrame f = new OutputFrame();
+        f.type = "case";
+        f.result = result;
+        return f;
+    }
+
     public String getType() { return type; }
     public String getData() { return data; }
     public Integer getExitCode() { return exitCode; }
     public Long getExecutionTimeMs() { return executionTimeMs; }
     public String getMessage() { return message; }
+    public Integer getPosition() { return position; }
+    public TestCaseResult getResult() { return result; }
+    public Boolean getTimedOut() { return timedOut; }
+    public ResourceUsage getUsage() { return usage; }
 }
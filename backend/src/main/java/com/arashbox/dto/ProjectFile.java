@@ -0,0 +1,25 @@
+package com.arashbox.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public class ProjectFile {
+
+    // Relative path inside the project; no absolute paths or parent segments
+    @NotBlank
+    @Size(max = 90)
+    @Pattern(regexp = "^(?!.*(^|/)\\.\\.?(/|$))[A-Za-z0-9._-]+(/[A-Za-z0-9._-]+)*$",
+            message = "Path must be relative and may only contain letters, digits, '.', '_', '-' and '/'")
+    private String path;
+
+    @NotNull
+    private String content;
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+}
@@ -0,0 +1,27 @@
+package com.arashbox.dto;
+
+/** What a run consumed, read from its container's cgroup after it finished. */
+public class ResourceUsage {
+
+    private long cpuTimeMs;
+    // Null where the kernel keeps no peak (cgroup v2 before Linux 5.19)
+    private Long peakMemoryBytes;
+    private boolean oomKilled;
+
+    public ResourceUsage() {}
+
+    public ResourceUsage(long cpuTimeMs, Long peakMemoryBytes, boolean oomKilled) {
+        this.cpuTimeMs = cpuTimeMs;
+        this.peakMemoryBytes = peakMemoryBytes;
+        this.oomKilled = oomKilled;
+    }
+
+    public long getCpuTimeMs() { return cpuTimeMs; }
+    public void setCpuTimeMs(long cpuTimeMs) { this.cpuTimeMs = cpuTimeMs; }
+
+    public Long getPeakMemoryBytes() { return peakMemoryBytes; }
+    public void setPeakMemoryBytes(Long peakMemoryBytes) { this.peakMemoryBytes = peakMemoryBytes; }
+
+    public boolean isOomKilled() { return oomKilled; }
+    public void setOomKilled(boolean oomKilled) { this.oomKilled = oomKilled; }
+}
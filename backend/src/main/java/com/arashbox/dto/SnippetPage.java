@@ -0,0 +1,23 @@
+package com.arashbox.dto;
+
+import java.util.List;
+
+/** One page of a snippet listing; pass {@code nextCursor} back to get the next page, null on the last one. */
+public class SnippetPage {
+
+    private List<SnippetSummary> items;
+    private String nextCursor;
+
+    public SnippetPage() {}
+
+    public SnippetPage(List<SnippetSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SnippetSummary> getItems() { return items; }
+    public void setItems(List<SnippetSummary> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
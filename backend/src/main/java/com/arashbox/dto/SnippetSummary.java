@@ -0,0 +1,44 @@
+package com.arashbox.dto;
+
+import java.time.LocalDateTime;
+
+/** A snippet without its code, for listings. */
+public class SnippetSummary {
+
+    private Long id;
+    private String title;
+    private String language;
+    private String shareId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public SnippetSummary() {}
+
+    public SnippetSummary(Long id, String title, String language, String shareId,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.language = language;
+        this.shareId = shareId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+
+    public String getShareId() { return shareId; }
+    public void setShareId(String shareId) { this.shareId = shareId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
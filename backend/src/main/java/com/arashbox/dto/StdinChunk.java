@@ -0,0 +1,17 @@
+package com.arashbox.dto;
+
+import jakarta.validation.constraints.Size;
+
+public class StdinChunk {
+
+    @Size(max = 65_536)
+    private String data;
+
+    private boolean eof;
+
+    public String getData() { return data; }
+    public void setData(String data) { this.data = data; }
+
+    public boolean isEof() { return eof; }
+    public void setEof(boolean eof) { this.eof = eof; }
+}
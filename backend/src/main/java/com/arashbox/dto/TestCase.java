@@ -0,0 +1,19 @@
+package com.arashbox.dto;
+
+import jakarta.validation.constraints.Size;
+
+public class TestCase {
+
+    @Size(max = 65_536, message = "Stdin must not exceed 64KB")
+    private String stdin;
+
+    // When set, the case passes only if stdout matches it (ignoring trailing whitespace)
+    @Size(max = 65_536, message = "Expected output must not exceed 64KB")
+    private String expectedOutput;
+
+    public String getStdin() { return stdin; }
+    public void setStdin(String stdin) { this.stdin = stdin; }
+
+    public String getExpectedOutput() { return expectedOutput; }
+    public void setExpectedOutput(String expectedOutput) { this.expectedOutput = expectedOutput; }
+}
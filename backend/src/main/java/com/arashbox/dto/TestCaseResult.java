@@ -0,0 +1,47 @@
+package com.arashbox.dto;
+
+public class TestCaseResult {
+
+    private int index;
+    private String stdout;
+    private String stderr;
+    private int exitCode;
+    private long executionTimeMs;
+    private boolean timedOut;
+    // Null when the case had no expected output
+    private Boolean passed;
+
+    public TestCaseResult() {}
+
+    public TestCaseResult(int index, String stdout, String stderr, int exitCode, long executionTimeMs,
+                          boolean timedOut, Boolean passed) {
+        this.index = index;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.exitCode = exitCode;
+        this.executionTimeMs = executionTimeMs;
+        this.timedOut = timedOut;
+        this.passed = passed;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getStdout() { return stdout; }
+    public void setStdout(String stdout) { this.stdout = stdout; }
+
+    public String getStderr() { return stderr; }
+    public void setStderr(String stderr) { this.stderr = stderr; }
+
+    public int getExitCode() { return exitCode; }
+    public void setExitCode(int exitCode) { this.exitCode = exitCode; }
+
+    public long getExecutionTimeMs() { return executionTimeMs; }
+    public void setExecutionTimeMs(long executionTimeMs) { this.executionTimeMs = executionTimeMs; }
+
+    public boolean isTimedOut() { return timedOut; }
+    public void setTimedOut(boolean timedOut) { this.timedOut = timedOut; }
+
+    public Boolean getPassed() { return passed; }
+    public void setPassed(Boolean passed) { this.passed = passed; }
+}
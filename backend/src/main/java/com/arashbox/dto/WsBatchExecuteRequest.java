@@ -0,0 +1,12 @@
+package com.arashbox.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class WsBatchExecuteRequest extends BatchExecutionRequest {
+
+    @NotBlank
+    private String sessionId;
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+}
@@ -1,32 +1,18 @@
 package com.arashbox.dto;
 
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Size;
 
-public class WsExecuteRequest {
+public class WsExecuteRequest extends ExecutionRequest {
 
     @NotBlank
     private String sessionId;
 
-    @NotBlank
-    @Size(max = 65_536)
-    private String code;
-
-    @NotBlank
-    private String language;
-
-    @Size(max = 65_536)
-    private String stdin;
+    // Keep stdin open after the one-shot stdin so chunks can be streamed in
+    private boolean interactive;
 
     public String getSessionId() { return sessionId; }
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
 
-    public String getCode() { return code; }
-    public void setCode(String code) { this.code = code; }
-
-    public String getLanguage() { return language; }
-    public void setLanguage(String language) { this.language = language; }
-
-    public String getStdin() { return stdin; }
-    public void setStdin(String stdin) { this.stdin = stdin; }
+    public boolean isInteractive() { return interactive; }
+    public void setInteractive(boolean interactive) { this.interactive = interactive; }
 }
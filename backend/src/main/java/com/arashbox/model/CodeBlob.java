@@ -0,0 +1,134 @@
+package com.arashbox.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Snippet code stored once per distinct content, keyed by the SHA-256 of its UTF-8
+ * bytes. The body is deflate-compressed unless that wouldn't make it smaller. Blobs
+ * are immutable: an edit stores a new blob.
+ */
+@Entity
+@Table(name = "code_blobs")
+public class CodeBlob implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 16 * 1024 * 1024)
+    private byte[] data;
+
+    private boolean compressed;
+
+    @Column(name = "original_size")
+    private int originalSize;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Blobs are only ever inserted, so save() can skip the merge lookup
+    @Transient
+    private boolean isNew = true;
+
+    protected CodeBlob() {}
+
+    private CodeBlob(String hash, byte[] data, boolean compressed, int originalSize) {
+        this.hash = hash;
+        this.data = data;
+        this.compressed = compressed;
+        this.originalSize = originalSize;
+    }
+
+    /** Builds the blob for UTF-8 code whose hash is already known. */
+    public static CodeBlob of(String hash, byte[] bytes) {
+        byte[] deflated = deflate(bytes);
+        boolean compressed = deflated.length < bytes.length;
+        return new CodeBlob(hash, compressed ? deflated : bytes, compressed, bytes.length);
+    }
+
+    public static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String decode() {
+        byte[] bytes = compressed ? inflate(data, originalSize) : data;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() { return hash; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public String getHash() { return hash; }
+    public byte[] getData() { return data; }
+    public boolean isCompressed() { return compressed; }
+    public int getOriginalSize() { return originalSize; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int originalSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] bytes = new byte[originalSize];
+            int read = 0;
+            while (read < originalSize && !inflater.finished()) {
+                int n = inflater.inflate(bytes, read, originalSize - read);
+                if (n == 0 && inflater.needsInput()) break;
+                read += n;
+            }
+            if (read != originalSize) {
+                throw new IllegalStateException("Corrupt code blob " + hash(data) + ": expected "
+                        + originalSize + " bytes, got " + read);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt code blob", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
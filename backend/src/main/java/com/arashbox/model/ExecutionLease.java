@@ -0,0 +1,36 @@
+package com.arashbox.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One in-flight execution slot of a client in cluster mode. A client with a cap of N owns
+ * at most the slots 0..N-1, and the primary key makes taking one atomic. The holding node
+ * renews its leases; those of a node that died expire and are taken over.
+ */
+@Entity
+@Table(name = "execution_leases",
+        indexes = @Index(name = "idx_execution_leases_client", columnList = "client_key"))
+public class ExecutionLease {
+
+    // "<client key>#<slot>"
+    @Id
+    @Column(name = "lease_key")
+    private String leaseKey;
+
+    @Column(name = "client_key", nullable = false)
+    private String clientKey;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    // Epoch milliseconds
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    protected ExecutionLease() {}
+
+    public String getLeaseKey() { return leaseKey; }
+    public String getClientKey() { return clientKey; }
+    public String getNodeId() { return nodeId; }
+    public long getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,90 @@
+package com.arashbox.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One finished execution, for auditing and usage analytics. Rows are inserted in JDBC
+ * batches by ExecutionHistory, never through JPA; the entity maps them for the schema
+ * and for reading a user's history back.
+ */
+@Entity
+@Table(name = "execution_records",
+        indexes = @Index(name = "idx_execution_records_user_created", columnList = "user_id, created_at DESC, id DESC"))
+public class ExecutionRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    private String language;
+
+    // SHA-256 of the main file, the same hash code_blobs uses
+    @Column(name = "code_hash", length = 64)
+    private String codeHash;
+
+    // exited, timeout, oom_killed, cancelled or failed
+    private String outcome;
+
+    @Column(name = "exit_code")
+    private Integer exitCode;
+
+    @Column(name = "test_cases")
+    private Integer testCases;
+
+    @Column(name = "duration_ms")
+    private long durationMs;
+
+    @Column(name = "stdout_bytes")
+    private long stdoutBytes;
+
+    @Column(name = "stderr_bytes")
+    private long stderrBytes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public ExecutionRecord() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getClientIp() { return clientIp; }
+    public void setClientIp(String clientIp) { this.clientIp = clientIp; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+
+    public String getCodeHash() { return codeHash; }
+    public void setCodeHash(String codeHash) { this.codeHash = codeHash; }
+
+    public String getOutcome() { return outcome; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+
+    public Integer getExitCode() { return exitCode; }
+    public void setExitCode(Integer exitCode) { this.exitCode = exitCode; }
+
+    public Integer getTestCases() { return testCases; }
+    public void setTestCases(Integer testCases) { this.testCases = testCases; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public long getStdoutBytes() { return stdoutBytes; }
+    public void setStdoutBytes(long stdoutBytes) { this.stdoutBytes = stdoutBytes; }
+
+    public long getStderrBytes() { return stderrBytes; }
+    public void setStderrBytes(long stderrBytes) { this.stderrBytes = stderrBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,26 @@
+package com.arashbox.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A rate-limit bucket shared by every node in cluster mode. Rows are read and written
+ * with single conditional statements by SharedBuckets; the entity only defines the table.
+ */
+@Entity
+@Table(name = "rate_limit_buckets")
+public class RateLimitBucket {
+
+    // "<rule>:<user|ip>:<client>"
+    @Id
+    @Column(name = "bucket_key")
+    private String bucketKey;
+
+    // Theoretical arrival time, in epoch microseconds
+    @Column(nullable = false)
+    private long tat;
+
+    protected RateLimitBucket() {}
+
+    public String getBucketKey() { return bucketKey; }
+    public long getTat() { return tat; }
+}
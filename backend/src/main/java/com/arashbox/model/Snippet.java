@@ -1,11 +1,14 @@
 package com.arashbox.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "snippets")
+@Table(name = "snippets",
+        indexes = @Index(name = "idx_snippets_user_updated", columnList = "user_id, updated_at DESC, id DESC"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_snippets_share_id", columnNames = "share_id"))
 public class Snippet {
 
     @Id
@@ -15,20 +18,57 @@ public class Snippet {
     @NotBlank
     private String title;
 
-    @Column(columnDefinition = "TEXT")
+    // Code lives in code_blobs, shared by every snippet with the same content. It's
+    // loaded on first access; code set by the client is written by SnippetService.save.
+    @Transient
     private String code;
 
+    @Column(name = "code_hash", length = 64)
+    private String codeHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "code_hash", insertable = false, updatable = false)
+    private CodeBlob codeBlob;
+
+    // Inline code of rows written before code_blobs existed; CodeBlobMigration moves it out
+    @Column(name = "code", columnDefinition = "TEXT")
+    private String legacyCode;
+
     @NotBlank
     private String language;
 
+    @Column(name = "user_id")
     private String userId;
 
+    @Column(name = "share_id")
     private String shareId;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    public Snippet() {}
+
+    /**
+     * Detached field-by-field copy, used to hand out cached snippets. The copy shares the
+     * immutable blob rather than its decoded code, so the blob must already be loaded.
+     */
+    public Snippet(Snippet other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.code = other.code;
+        this.codeHash = other.codeHash;
+        this.codeBlob = other.codeBlob;
+        this.legacyCode = other.legacyCode;
+        this.language = other.language;
+        this.userId = other.userId;
+        this.shareId = other.shareId;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -46,9 +86,22 @@ public class Snippet {
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getCode() { return code; }
+    public String getCode() {
+        if (code == null) {
+            code = codeBlob != null ? codeBlob.decode() : legacyCode;
+        }
+        return code;
+    }
     public void setCode(String code) { this.code = code; }
 
+    @JsonIgnore
+    public String getCodeHash() { return codeHash; }
+    public void setCodeHash(String codeHash) { this.codeHash = codeHash; }
+
+    @JsonIgnore
+    public String getLegacyCode() { return legacyCode; }
+    public void setLegacyCode(String legacyCode) { this.legacyCode = legacyCode; }
+
     public String getLanguage() { return language; }
     public void setLanguage(String language) { this.language = language; }
 
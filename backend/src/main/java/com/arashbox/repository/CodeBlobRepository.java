@@ -0,0 +1,7 @@
+package com.arashbox.repository;
+
+import com.arashbox.model.CodeBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CodeBlobRepository extends JpaRepository<CodeBlob, String> {
+}
@@ -0,0 +1,31 @@
+package com.arashbox.repository;
+
+import com.arashbox.model.ExecutionRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ExecutionRecordRepository extends JpaRepository<ExecutionRecord, Long> {
+
+    // Both listing queries walk idx_execution_records_user_created; (createdAt, id) is the keyset
+
+    @Query("""
+            select r from ExecutionRecord r
+            where r.userId = :userId
+            order by r.createdAt desc, r.id desc""")
+    List<ExecutionRecord> findRecent(@Param("userId") String userId, Limit limit);
+
+    @Query("""
+            select r from ExecutionRecord r
+            where r.userId = :userId
+              and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id))
+            order by r.createdAt desc, r.id desc""")
+    List<ExecutionRecord> findRecentAfter(@Param("userId") String userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+}
@@ -1,14 +1,52 @@
 package com.arashbox.repository;
 
+import com.arashbox.dto.SnippetSummary;
 import com.arashbox.model.Snippet;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface SnippetRepository extends JpaRepository<Snippet, Long> {
 
-    List<Snippet> findByUserIdOrderByUpdatedAtDesc(String userId);
+    // Both listing queries walk idx_snippets_user_updated; (updatedAt, id) is the keyset
 
+    @Query("""
+            select new com.arashbox.dto.SnippetSummary(s.id, s.title, s.language, s.shareId, s.createdAt, s.updatedAt)
+            from Snippet s
+            where s.userId = :userId
+            order by s.updatedAt desc, s.id desc""")
+    List<SnippetSummary> findSummaries(@Param("userId") String userId, Limit limit);
+
+    @Query("""
+            select new com.arashbox.dto.SnippetSummary(s.id, s.title, s.language, s.shareId, s.createdAt, s.updatedAt)
+            from Snippet s
+            where s.userId = :userId
+              and (s.updatedAt < :updatedAt or (s.updatedAt = :updatedAt and s.id < :id))
+            order by s.updatedAt desc, s.id desc""")
+    List<SnippetSummary> findSummariesAfter(@Param("userId") String userId,
+                                            @Param("updatedAt") LocalDateTime updatedAt,
+                                            @Param("id") Long id,
+                                            Limit limit);
+
+    // Lookups fetch the code blob in the same query, so a cached copy can decode it later
+    @EntityGraph(attributePaths = "codeBlob")
+    Optional<Snippet> findWithCodeBlobById(Long id);
+
+    @EntityGraph(attributePaths = "codeBlob")
     Optional<Snippet> findByShareId(String shareId);
+
+    List<Snippet> findByCodeHashIsNullAndLegacyCodeIsNotNull(Limit limit);
+
+    // Bulk update, so moving code out doesn't run @PreUpdate and bump updatedAt. It only
+    // touches snippets, so the blob it points at has to be flushed first for the foreign key
+    @Modifying(flushAutomatically = true)
+    @Query("update Snippet s set s.codeHash = :codeHash, s.legacyCode = null where s.id = :id")
+    void moveCodeToBlob(@Param("id") Long id, @Param("codeHash") String codeHash);
 }
@@ -0,0 +1,153 @@
+package com.arashbox.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of compiled build outputs, one tar file per key. The key covers the
+ * sources, the toolchain image and the compile command, so an unchanged project skips
+ * compilation entirely. Eviction is LRU by total size; file modification times carry
+ * the LRU order across restarts.
+ */
+@Component
+public class BuildArtifactCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BuildArtifactCache.class);
+
+    private static final String SUFFIX = ".tar";
+
+    @Value("${arashbox.build.cache-dir:}")
+    private String cacheDir;
+
+    @Value("${arashbox.build.cache-max-bytes:536870912}")
+    private long maxBytes;
+
+    private Path dir;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = cacheDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "arashbox-build-cache")
+                : Path.of(cacheDir);
+        Files.createDirectories(dir);
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(dir)) {
+            listing.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(BuildArtifactCache::lastModified));
+        synchronized (this) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    // Leftover from a write interrupted by a crash
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                sizeBytes += size;
+            }
+            evict();
+        }
+        log.info("Build artifact cache at {}: {} entries, {} bytes", dir, entries.size(), sizeBytes);
+    }
+
+    /** Returns the cached build output for the key, or null. */
+    public byte[] get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        Path file = file(key);
+        try {
+            byte[] artifacts = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return artifacts;
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read
+            synchronized (this) {
+                Long size = entries.remove(key);
+                if (size != null) sizeBytes -= size;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read build artifacts {}", file, e);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, byte[] artifacts) {
+        if (artifacts.length > maxBytes) return;
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, artifacts);
+            Files.move(tmp, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store build artifacts " + key, e);
+        }
+        synchronized (this) {
+            Long previous = entries.put(key, (long) artifacts.length);
+            if (previous != null) sizeBytes -= previous;
+            sizeBytes += artifacts.length;
+            evict();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public synchronized long getSizeBytes() { return sizeBytes; }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            sizeBytes -= eldest.getValue();
+            it.remove();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to evict build artifacts {}", eldest.getKey(), e);
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.arashbox.service;
+
+import com.arashbox.model.Snippet;
+import com.arashbox.repository.SnippetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Moves inline code of snippets saved before code_blobs existed into the blob store,
+ * in batches on a background thread after startup. Logs how many bytes the inline
+ * column held against what the new blobs take. The emptied code column can be dropped
+ * once no rows are left with it.
+ */
+@Component
+public class CodeBlobMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeBlobMigration.class);
+
+    private final SnippetRepository snippetRepository;
+    private final CodeBlobStore codeBlobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${arashbox.blobs.migrate-on-startup:true}")
+    private boolean enabled;
+
+    @Value("${arashbox.blobs.migration-batch-size:200}")
+    private int batchSize;
+
+    public CodeBlobMigration(SnippetRepository snippetRepository, CodeBlobStore codeBlobStore,
+                             TransactionTemplate transactionTemplate) {
+        this.snippetRepository = snippetRepository;
+        this.codeBlobStore = codeBlobStore;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            Thread.ofVirtual().name("code-blob-migration").start(this::migrate);
+        }
+    }
+
+    void migrate() {
+        long blobsBefore = codeBlobStore.getStored();
+        long blobBytesBefore = codeBlobStore.getStoredBytes();
+        long rows = 0;
+        long inlineBytes = 0;
+
+        try {
+            while (true) {
+                long[] batch = transactionTemplate.execute(status -> migrateBatch());
+                if (batch == null || batch[0] == 0) break;
+                rows += batch[0];
+                inlineBytes += batch[1];
+            }
+        } catch (Exception e) {
+            log.warn("Code blob migration stopped after {} snippets", rows, e);
+            return;
+        }
+
+        if (rows > 0) {
+            long blobs = codeBlobStore.getStored() - blobsBefore;
+            long blobBytes = codeBlobStore.getStoredBytes() - blobBytesBefore;
+            log.info("Migrated {} snippets to code blobs: {} bytes of inline code now in {} blobs of {} bytes ({}% saved)",
+                    rows, inlineBytes, blobs, blobBytes,
+                    inlineBytes == 0 ? 0 : Math.round(100.0 * (inlineBytes - blobBytes) / inlineBytes));
+        }
+    }
+
+    // Returns {rows, inline bytes}; migrated rows drop out of the query, so each batch starts over
+    private long[] migrateBatch() {
+        List<Snippet> snippets = snippetRepository.findByCodeHashIsNullAndLegacyCodeIsNotNull(Limit.of(batchSize));
+        long bytes = 0;
+        for (Snippet snippet : snippets) {
+            String code = snippet.getLegacyCode();
+            bytes += code.getBytes(StandardCharsets.UTF_8).length;
+            snippetRepository.moveCodeToBlob(snippet.getId(), codeBlobStore.store(code));
+        }
+        return new long[]{snippets.size(), bytes};
+    }
+}
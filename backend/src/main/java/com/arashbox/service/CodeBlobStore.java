@@ -0,0 +1,60 @@
+package com.arashbox.service;
+
+import com.arashbox.model.CodeBlob;
+import com.arashbox.repository.CodeBlobRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed storage for snippet code. Identical code is stored once no
+ * matter how many snippets (forks, unchanged saves) point at it, and the counters
+ * show how many bytes that and compression save.
+ */
+@Service
+public class CodeBlobStore {
+
+    private final CodeBlobRepository blobRepository;
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    public CodeBlobStore(CodeBlobRepository blobRepository) {
+        this.blobRepository = blobRepository;
+    }
+
+    /** Stores the code unless a blob with the same content exists, and returns its hash. */
+    public String store(String code) {
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        String hash = CodeBlob.hash(bytes);
+        originalBytes.addAndGet(bytes.length);
+        if (blobRepository.existsById(hash)) {
+            deduplicated.incrementAndGet();
+            return hash;
+        }
+
+        CodeBlob blob = CodeBlob.of(hash, bytes);
+        try {
+            blobRepository.save(blob);
+            stored.incrementAndGet();
+            storedBytes.addAndGet(blob.getData().length);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent save inserted the same content first
+            deduplicated.incrementAndGet();
+        }
+        return hash;
+    }
+
+    /** Blobs inserted since startup. */
+    public long getStored() { return stored.get(); }
+    /** Writes that found their content already stored. */
+    public long getDeduplicated() { return deduplicated.get(); }
+    /** UTF-8 bytes of all code written since startup, as inline TEXT would have held it. */
+    public long getOriginalBytes() { return originalBytes.get(); }
+    /** Bytes actually inserted into code_blobs for those writes. */
+    public long getStoredBytes() { return storedBytes.get(); }
+}
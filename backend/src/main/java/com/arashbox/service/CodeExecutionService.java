@@ -1,180 +1,864 @@
 package com.arashbox.service;
 
+import com.arashbox.config.LanguageRuntime;
+import com.arashbox.dto.BatchExecutionRequest;
+import com.arashbox.dto.BatchExecutionResponse;
 import com.arashbox.dto.ExecutionRequest;
 import com.arashbox.dto.ExecutionResponse;
 import com.arashbox.dto.OutputFrame;
+import com.arashbox.dto.ProjectFile;
+import com.arashbox.dto.ResourceUsage;
+import com.arashbox.dto.TestCase;
+import com.arashbox.dto.TestCaseResult;
+import com.arashbox.model.ExecutionRecord;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.async.ResultCallback;
-import com.github.dockerjava.api.command.CreateContainerResponse;
-import com.github.dockerjava.api.command.WaitContainerResultCallback;
-import com.github.dockerjava.api.model.Capability;
+import com.github.dockerjava.api.command.ExecStartCmd;
 import com.github.dockerjava.api.model.Frame;
-import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.StreamType;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.Closeable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class CodeExecutionService {
 
     private static final Logger log = LoggerFactory.getLogger(CodeExecutionService.class);
 
-    private final DockerClient dockerClient;
+    private final DockerHostRegistry hosts;
+    private final LanguageRegistry languages;
+    private final ContainerPool containerPool;
+    private final ExecutionResultCache resultCache;
+    private final BuildArtifactCache buildCache;
+    private final ExecutionMetrics metrics;
+    private final ExecutionWatchdog watchdog;
+    private final ExecutionHistory history;
 
     @Value("${arashbox.execution.timeout-seconds:10}")
     private int timeoutSeconds;
 
-    @Value("${arashbox.execution.memory-limit-mb:128}")
-    private int memoryLimitMb;
+    @Value("${arashbox.execution.output-flush-bytes:16384}")
+    private int outputFlushBytes;
 
-    private static final int MAX_OUTPUT_BYTES = 65_536;
+    @Value("${arashbox.execution.output-flush-interval-ms:20}")
+    private long outputFlushIntervalMs;
+
+    @Value("${arashbox.execution.max-project-bytes:8388608}")
+    private long maxProjectBytes;
+
+    @Value("${arashbox.execution.capture-head-bytes:32768}")
+    private int captureHeadBytes;
 
-    private static final Map<String, String> LANGUAGE_IMAGES = Map.of(
-        "python", "python:3.12-slim",
-        "javascript", "node:20-slim"
-    );
+    @Value("${arashbox.execution.capture-tail-bytes:32768}")
+    private int captureTailBytes;
 
-    private static final Map<String, String> LANGUAGE_EXTENSIONS = Map.of(
-        "python", "py",
-        "javascript", "js"
-    );
+    @Value("${arashbox.execution.resource-usage:true}")
+    private boolean resourceUsageEnabled;
 
-    private static final Map<String, String> LANGUAGE_INTERPRETERS = Map.of(
-        "python", "python3",
-        "javascript", "node"
-    );
+    @Value("${arashbox.execution.deadline-grace-seconds:15}")
+    private int deadlineGraceSeconds;
 
-    public CodeExecutionService(DockerClient dockerClient) {
-        this.dockerClient = dockerClient;
+    @Value("${arashbox.build.timeout-seconds:30}")
+    private int buildTimeoutSeconds;
+
+    @Value("${arashbox.build.max-artifact-bytes:67108864}")
+    private int maxArtifactBytes;
+
+    private static final int MAX_OUTPUT_BYTES = 65_536;
+
+    private static final String PROJECT_DIR = "project";
+
+    private static final String BUILD_DIR = "build";
+
+    // One-shot stdin is uploaded with the project, one file per run or test case
+    private static final String STDIN_DIR = "stdin";
+
+    private static final int CASE_KILL_GRACE_SECONDS = 2;
+
+    // Reported for runs that hit their timeout, as for a process killed by SIGKILL
+    private static final int TIMED_OUT_EXIT_CODE = 137;
+
+    // Prints the container's cgroup counters as "key value" lines, for cgroup v2 or v1
+    private static final String USAGE_SCRIPT = """
+            cd /sys/fs/cgroup
+            if [ -f cpu.stat ]; then
+              cat cpu.stat memory.events
+              echo "peak $(cat memory.peak 2>/dev/null)"
+            else
+              echo "cpuacct_ns $(cat cpuacct/cpuacct.usage)"
+              echo "peak $(cat memory/memory.max_usage_in_bytes)"
+              grep oom_kill memory/memory.oom_control
+            fi
+            """;
+
+    // Runs "$@" reading the framed stdin (see StdinPipe.framed()) through a FIFO. A
+    // background loop copies each frame from the exec's stdin with head -c and closes
+    // the FIFO at the empty frame, which is the program's EOF. The loop isn't part of
+    // a pipeline, so a program that exits without reading doesn't wait for it.
+    private static final String FRAMED_STDIN_SCRIPT = """
+            fifo=$(mktemp -u)
+            mkfifo "$fifo"
+            exec 3<&0
+            { rm -f "$fifo"; while IFS= read -r n <&3 && [ "$n" -gt 0 ]; do head -c "$n" <&3; done; } >"$fifo" 2>/dev/null &
+            exec "$@" <"$fifo" 3<&-
+            """;
+
+    private final ScheduledExecutorService outputFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "output-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CodeExecutionService(DockerHostRegistry hosts, LanguageRegistry languages, ContainerPool containerPool,
+                                ExecutionResultCache resultCache, BuildArtifactCache buildCache,
+                                ExecutionMetrics metrics, ExecutionWatchdog watchdog, ExecutionHistory history) {
+        this.hosts = hosts;
+        this.languages = languages;
+        this.containerPool = containerPool;
+        this.resultCache = resultCache;
+        this.buildCache = buildCache;
+        this.metrics = metrics;
+        this.watchdog = watchdog;
+        this.history = history;
     }
 
+    /**
+     * Runs the request to completion. The output isn't capped while it runs; instead the
+     * response keeps the head and tail of each stream, so the final error survives.
+     */
     public ExecutionResponse execute(ExecutionRequest request) {
-        StringBuilder stdout = new StringBuilder();
-        StringBuilder stderr = new StringBuilder();
-        AtomicInteger exitCode = new AtomicInteger(1);
-        long[] execTime = {0};
-
-        executeStreaming(request.getCode(), request.getLanguage(), request.getStdin(), frame -> {
-            switch (frame.getType()) {
-                case "stdout" -> stdout.append(frame.getData());
-                case "stderr" -> stderr.append(frame.getData());
-                case "exit" -> {
-                    exitCode.set(frame.getExitCode());
-                    execTime[0] = frame.getExecutionTimeMs();
-                }
-                case "error" -> stderr.append(frame.getMessage());
-            }
-        });
+        return execute(request, new ExecutionHandle());
+    }
 
-        return new ExecutionResponse(stdout.toString(), stderr.toString(), exitCode.get(), execTime[0]);
+    public ExecutionResponse execute(ExecutionRequest request, ExecutionHandle handle) {
+        ExecutionResponseCollector collector = new ExecutionResponseCollector(captureHeadBytes, captureTailBytes);
+        executeStreaming(request, null, handle, collector, Long.MAX_VALUE);
+        ExecutionResponse response = collector.toResponse();
+        if (response.getStdoutOmittedBytes() > 0 || response.getStderrOmittedBytes() > 0) {
+            metrics.recordTruncation(request.getLanguage().toLowerCase());
+        }
+        return response;
+    }
+
+    /**
+     * Runs the request and streams its frames to the consumer. With a {@code stdinPipe}
+     * the process reads interactive input from it (any one-shot stdin should already
+     * have been written to the pipe); otherwise the request's stdin is its whole input.
+     * Cancelling {@code handle} stops the run and kills its container.
+     */
+    public void executeStreaming(ExecutionRequest request, StdinPipe stdinPipe, ExecutionHandle handle,
+                                 Consumer<OutputFrame> frameConsumer) {
+        executeStreaming(request, stdinPipe, handle, frameConsumer, MAX_OUTPUT_BYTES);
+    }
+
+    private void executeStreaming(ExecutionRequest request, StdinPipe stdinPipe, ExecutionHandle handle,
+                                  Consumer<OutputFrame> frameConsumer, long maxOutputBytes) {
+        long startTime = System.currentTimeMillis();
+        ExecutionTally tally = new ExecutionTally();
+        runStreaming(request, stdinPipe, handle, tally.andThen(frameConsumer), maxOutputBytes);
+        history.record(handle, tally.toRecord(request.getLanguage().toLowerCase(), handle,
+                System.currentTimeMillis() - startTime), request.getCode());
     }
 
-    public void executeStreaming(String code, String language, String stdin, Consumer<OutputFrame> frameConsumer) {
-        String lang = language.toLowerCase();
+    private void runStreaming(ExecutionRequest request, StdinPipe stdinPipe, ExecutionHandle handle,
+                              Consumer<OutputFrame> frameConsumer, long maxOutputBytes) {
+        String lang = request.getLanguage().toLowerCase();
 
-        if (!LANGUAGE_IMAGES.containsKey(lang)) {
+        // Cancelled while it was queued: give the slot straight back
+        if (handle.isCancelled()) {
+            frameConsumer.accept(OutputFrame.error("Execution stopped: " + handle.getReason()));
+            frameConsumer.accept(OutputFrame.exit(1, 0));
+            return;
+        }
+
+        LanguageRuntime runtime = languages.get(lang);
+        if (runtime == null) {
             frameConsumer.accept(OutputFrame.error("Unsupported language: " + lang));
             return;
         }
 
-        String image = LANGUAGE_IMAGES.get(lang);
-        String ext = LANGUAGE_EXTENSIONS.get(lang);
-        String interpreter = LANGUAGE_INTERPRETERS.get(lang);
+        Map<String, byte[]> project;
+        String entrypoint;
+        try {
+            project = projectFiles(request, runtime);
+            entrypoint = entrypoint(request, runtime, project);
+        } catch (IllegalArgumentException e) {
+            frameConsumer.accept(OutputFrame.error(e.getMessage()));
+            return;
+        }
+
+        // Interactive input isn't known up front, so those runs can't be cached
+        if (request.isNoCache() || stdinPipe != null || !resultCache.isEnabled()) {
+            runInContainer(lang, runtime, project, entrypoint, request.getStdin(), stdinPipe, handle,
+                    maxOutputBytes, frameConsumer);
+            return;
+        }
 
-        String codeB64 = Base64.getEncoder().encodeToString(code.getBytes(StandardCharsets.UTF_8));
-        String stdinB64 = Base64.getEncoder().encodeToString(
-                (stdin != null ? stdin : "").getBytes(StandardCharsets.UTF_8));
+        String cacheKey = cacheKey(lang, runtime, project, entrypoint, request.getStdin(), maxOutputBytes);
+        List<OutputFrame> cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            cached.forEach(frameConsumer);
+            return;
+        }
 
-        String shellCmd = "printf '%s' \"$CODE_B64\" | base64 -d > /tmp/code." + ext
-                + " && printf '%s' \"$STDIN_B64\" | base64 -d > /tmp/stdin.txt"
-                + " && " + interpreter + " /tmp/code." + ext + " < /tmp/stdin.txt";
+        List<OutputFrame> recorded = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong recordedBytes = new AtomicLong();
+        runInContainer(lang, runtime, project, entrypoint, request.getStdin(), null, handle, maxOutputBytes, frame -> {
+            // An uncapped run can print far more than is worth caching; stop recording it
+            if (frame.getData() == null
+                    || recordedBytes.addAndGet(ExecutionTally.utf8Length(frame.getData())) <= MAX_OUTPUT_BYTES) {
+                recorded.add(frame);
+            }
+            frameConsumer.accept(frame);
+        });
+
+        // Only clean runs are cached; failures, timeouts and OOM kills must be retried for real
+        boolean failed = recordedBytes.get() > MAX_OUTPUT_BYTES
+                || recorded.stream().anyMatch(f -> "error".equals(f.getType()));
+        if (!failed && !recorded.isEmpty() && exitedCleanly(recorded.get(recorded.size() - 1))) {
+            resultCache.put(cacheKey, recorded);
+        }
+    }
 
+    private static boolean exitedCleanly(OutputFrame exit) {
+        return "exit".equals(exit.getType())
+                && !Boolean.TRUE.equals(exit.getTimedOut())
+                && (exit.getUsage() == null || !exit.getUsage().isOomKilled());
+    }
+
+    // Without a stdinPipe, stdin is uploaded as a file and redirected, so the program
+    // sees EOF after it; an interactive pipe is passed through framed
+    private void runInContainer(String lang, LanguageRuntime runtime, Map<String, byte[]> project, String entrypoint,
+                                String stdin, StdinPipe stdinPipe, ExecutionHandle handle, long maxOutputBytes,
+                                Consumer<OutputFrame> frameConsumer) {
+        String image = runtime.getImage();
+        int timeout = runtime.getTimeoutSeconds();
         long startTime = System.currentTimeMillis();
-        String containerId = null;
+        SandboxContainer container = null;
+        ScheduledFuture<?> deadline = watchdog.watch(handle, deadlineMillis(runtime, 1));
 
         try {
-            CreateContainerResponse container = dockerClient.createContainerCmd(image)
-                    .withEnv(List.of("CODE_B64=" + codeB64, "STDIN_B64=" + stdinB64,
-                            "PYTHONUNBUFFERED=1"))
-                    .withCmd("sh", "-c", shellCmd)
-                    .withHostConfig(HostConfig.newHostConfig()
-                            .withMemory((long) memoryLimitMb * 1024 * 1024)
-                            .withCpuQuota(50000L)
-                            .withNetworkMode("none")
-                            .withReadonlyRootfs(true)
-                            .withTmpFs(Map.of("/tmp", "rw,noexec,size=10m"))
-                            .withPidsLimit(16L)
-                            .withCapDrop(Capability.ALL)
-                    )
-                    .withUser("nobody")
-                    .withTty(false)
-                    .exec();
-
-            containerId = container.getId();
-
-            dockerClient.startContainerCmd(containerId).exec();
-
-            AtomicInteger totalBytes = new AtomicInteger(0);
-
-            dockerClient.logContainerCmd(containerId)
-                    .withStdOut(true)
-                    .withStdErr(true)
-                    .withFollowStream(true)
-                    .exec(new ResultCallback<Frame>() {
-                        @Override public void onStart(Closeable closeable) {}
+            byte[] artifacts = null;
+            if (runtime.isCompiled()) {
+                Build build = build(lang, runtime, project, handle);
+                if (build.artifacts() == null) {
+                    if (stdinPipe != null) stdinPipe.close();
+                    metrics.recordOutcome("compile_error", lang);
+                    if (!build.output().isEmpty()) {
+                        frameConsumer.accept(OutputFrame.stderr(build.output()));
+                    }
+                    frameConsumer.accept(OutputFrame.exit(build.exitCode(), System.currentTimeMillis() - startTime));
+                    return;
+                }
+                artifacts = build.artifacts();
+            }
 
-                        @Override
-                        public void onNext(Frame frame) {
-                            if (totalBytes.get() >= MAX_OUTPUT_BYTES) return;
-                            String payload = new String(frame.getPayload());
-                            totalBytes.addAndGet(payload.length());
-                            switch (frame.getStreamType()) {
-                                case STDOUT -> frameConsumer.accept(OutputFrame.stdout(payload));
-                                case STDERR -> frameConsumer.accept(OutputFrame.stderr(payload));
-                                default -> {}
-                            }
+            Map<String, byte[]> files = stdinPipe == null
+                    ? withStdinFiles(project, Collections.singletonList(stdin))
+                    : project;
+            container = acquireWithProject(lang, image, files, artifacts, handle);
+
+            List<String> command = stdinPipe == null
+                    ? withStdinFile(runCommand(runtime, entrypoint), 0)
+                    : withFramedStdin(runCommand(runtime, entrypoint));
+            DockerClient dockerClient = container.host().getClient();
+            String execId = dockerClient.execCreateCmd(container.id())
+                    .withCmd(command.toArray(String[]::new))
+                    .withWorkingDir("/tmp/" + PROJECT_DIR)
+                    .withAttachStdin(stdinPipe != null)
+                    .withAttachStdout(true)
+                    .withAttachStderr(true)
+                    .exec()
+                    .getId();
+
+            OutputCoalescer output = new OutputCoalescer(maxOutputBytes, outputFlushBytes, frameConsumer);
+            ScheduledFuture<?> flushTimer = outputFlusher.scheduleAtFixedRate(
+                    output::flush, outputFlushIntervalMs, outputFlushIntervalMs, TimeUnit.MILLISECONDS);
+
+            long execStart = System.nanoTime();
+            AtomicBoolean firstOutput = new AtomicBoolean(true);
+            boolean timedOut = false;
+            try {
+                ExecStartCmd start = dockerClient.execStartCmd(execId);
+                if (stdinPipe != null) {
+                    start.withStdIn(stdinPipe.framed());
+                }
+                ResultCallback.Adapter<Frame> callback = start.exec(new ResultCallback.Adapter<Frame>() {
+                    @Override
+                    public void onNext(Frame frame) {
+                        if (firstOutput.compareAndSet(true, false)) {
+                            metrics.recordPhase("first_output", lang, execStart);
                         }
+                        output.accept(frame.getStreamType(), frame.getPayload());
+                    }
+                });
 
-                        @Override public void onError(Throwable throwable) {}
-                        @Override public void onComplete() {}
-                        @Override public void close() {}
-                    });
+                handle.onCancel(callback);
+                try {
+                    if (!callback.awaitCompletion(timeout, TimeUnit.SECONDS)) {
+                        callback.close();
+                        timedOut = true;
+                    }
+                } finally {
+                    handle.removeOnCancel(callback);
+                }
+                handle.checkCancelled();
+                metrics.recordPhase("wait", lang, execStart);
+            } finally {
+                if (stdinPipe != null) stdinPipe.close();
+                flushTimer.cancel(false);
+                output.finish();
+            }
 
-            int exit = dockerClient.waitContainerCmd(containerId)
-                    .exec(new WaitContainerResultCallback())
-                    .awaitStatusCode(timeoutSeconds, TimeUnit.SECONDS);
+            // A timed-out process is still running; removing the container kills it
+            int exit = TIMED_OUT_EXIT_CODE;
+            if (!timedOut) {
+                Long exitCode = dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+                exit = exitCode != null ? exitCode.intValue() : 1;
+            }
 
             long executionTime = System.currentTimeMillis() - startTime;
+            ResourceUsage usage = readUsage(container, handle);
 
-            if (totalBytes.get() >= MAX_OUTPUT_BYTES) {
-                frameConsumer.accept(OutputFrame.stderr("\n... output truncated (64KB limit)"));
+            boolean oomKilled = usage != null && usage.isOomKilled();
+            metrics.recordOutcome(timedOut ? "timeout" : oomKilled ? "oom_killed" : "exited", lang);
+            if (usage != null) {
+                metrics.recordUsage(lang, usage);
+            }
+            if (output.isTruncated()) {
+                metrics.recordTruncation(lang);
+                frameConsumer.accept(OutputFrame.stderr("\n... output truncated (" + maxOutputBytes / 1024 + "KB limit)"));
+            }
+            if (timedOut) {
+                frameConsumer.accept(OutputFrame.error("Execution timed out after " + timeout + "s"));
+            } else if (oomKilled) {
+                frameConsumer.accept(OutputFrame.stderr("\nKilled: out of memory ("
+                        + runtime.getMemoryLimitMb() + "MB limit)"));
             }
 
-            frameConsumer.accept(OutputFrame.exit(exit, executionTime));
+            frameConsumer.accept(OutputFrame.exit(exit, executionTime, timedOut, usage));
 
         } catch (Exception e) {
-            log.error("Code execution failed", e);
             long executionTime = System.currentTimeMillis() - startTime;
-            frameConsumer.accept(OutputFrame.error("Execution failed: " + e.getMessage()));
+            // Once cancelled, whatever the run was blocked on fails; that's not an error
+            if (handle.isCancelled()) {
+                metrics.recordOutcome(handle.isExpired() ? "timeout" : "cancelled", lang);
+                frameConsumer.accept(OutputFrame.error("Execution stopped: " + handle.getReason()));
+            } else {
+                log.error("Code execution failed{}", container != null ? " [" + container.executionId() + "]" : "", e);
+                metrics.recordOutcome(e instanceof TimeoutException ? "timeout" : "failed", lang);
+                frameConsumer.accept(OutputFrame.error("Execution failed: " + e.getMessage()));
+            }
             frameConsumer.accept(OutputFrame.exit(1, executionTime));
         } finally {
-            if (containerId != null) {
-                try {
-                    dockerClient.removeContainerCmd(containerId).withForce(true).exec();
-                } catch (Exception e) {
-                    log.warn("Failed to remove container: {}", containerId, e);
+            if (stdinPipe != null) stdinPipe.close();
+            deadline.cancel(false);
+            if (container != null) {
+                containerPool.release(container);
+            }
+        }
+    }
+
+    /**
+     * Runs one program against every test case inside a single container: it is built and
+     * uploaded once, then each case is its own exec with the case's stdin. {@code timeout}
+     * kills a case in the container when it exceeds the language's time limit, so a hung
+     * case can't run on into the next one. Each result goes to the consumer as it finishes.
+     */
+    public BatchExecutionResponse executeBatch(BatchExecutionRequest request, ExecutionHandle handle,
+                                               Consumer<TestCaseResult> caseConsumer) {
+        BatchExecutionResponse response = runBatch(request, handle, caseConsumer);
+        history.record(handle, batchRecord(request, handle, response), request.getCode());
+        return response;
+    }
+
+    private BatchExecutionResponse runBatch(BatchExecutionRequest request, ExecutionHandle handle,
+                                            Consumer<TestCaseResult> caseConsumer) {
+        String lang = request.getLanguage().toLowerCase();
+        List<TestCase> cases = request.getCases();
+
+        LanguageRuntime runtime = languages.get(lang);
+        if (runtime == null) {
+            return new BatchExecutionResponse(List.of(), 0, 0, cases.size(), 0, "Unsupported language: " + lang);
+        }
+
+        Map<String, byte[]> project;
+        String entrypoint;
+        try {
+            project = projectFiles(request, runtime);
+            entrypoint = entrypoint(request, runtime, project);
+        } catch (IllegalArgumentException e) {
+            return new BatchExecutionResponse(List.of(), 0, 0, cases.size(), 0, e.getMessage());
+        }
+
+        int timeout = runtime.getTimeoutSeconds();
+        long startTime = System.currentTimeMillis();
+        List<TestCaseResult> results = new ArrayList<>();
+        String error = null;
+        SandboxContainer container = null;
+        ScheduledFuture<?> deadline = watchdog.watch(handle, deadlineMillis(runtime, cases.size()));
+
+        try {
+            handle.checkCancelled();
+            byte[] artifacts = null;
+            if (runtime.isCompiled()) {
+                Build build = build(lang, runtime, project, handle);
+                if (build.artifacts() == null) {
+                    metrics.recordOutcome("compile_error", lang);
+                    return new BatchExecutionResponse(List.of(), 0, 0, cases.size(),
+                            System.currentTimeMillis() - startTime,
+                            "Compilation failed with exit code " + build.exitCode() + "\n" + build.output());
                 }
+                artifacts = build.artifacts();
             }
+
+            Map<String, byte[]> files = withStdinFiles(project, cases.stream().map(TestCase::getStdin).toList());
+            container = acquireWithProject(lang, runtime.getImage(), files, artifacts, handle);
+
+            List<String> command = new ArrayList<>(List.of("timeout", "-s", "KILL", timeout + "s"));
+            command.addAll(runCommand(runtime, entrypoint));
+            for (int i = 0; i < cases.size(); i++) {
+                TestCaseResult result = runCase(lang, container, withStdinFile(command, i), i, cases.get(i),
+                        timeout, handle);
+                results.add(result);
+                caseConsumer.accept(result);
+                if (request.isStopOnFailure() && !succeeded(result)) break;
+            }
+        } catch (Exception e) {
+            if (handle.isCancelled()) {
+                metrics.recordOutcome(handle.isExpired() ? "timeout" : "cancelled", lang);
+                error = "Execution stopped: " + handle.getReason();
+            } else {
+                log.error("Batch execution failed{}", container != null ? " [" + container.executionId() + "]" : "", e);
+                metrics.recordOutcome(e instanceof TimeoutException ? "timeout" : "failed", lang);
+                error = "Execution failed: " + e.getMessage();
+            }
+        } finally {
+            deadline.cancel(false);
+            if (container != null) {
+                containerPool.release(container);
+            }
+        }
+
+        int succeeded = (int) results.stream().filter(CodeExecutionService::succeeded).count();
+        return new BatchExecutionResponse(results, succeeded, results.size() - succeeded,
+                cases.size() - results.size(), System.currentTimeMillis() - startTime, error);
+    }
+
+    private TestCaseResult runCase(String lang, SandboxContainer container, List<String> command, int index,
+                                   TestCase testCase, int timeout, ExecutionHandle handle) throws Exception {
+        DockerClient dockerClient = container.host().getClient();
+        String execId = dockerClient.execCreateCmd(container.id())
+                .withCmd(command.toArray(String[]::new))
+                .withWorkingDir("/tmp/" + PROJECT_DIR)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec()
+                .getId();
+
+        // Nothing streams per case, so output is only merged and decoded, never flushed early
+        ExecutionResponseCollector collector = new ExecutionResponseCollector(captureHeadBytes, captureTailBytes);
+        OutputCoalescer output = new OutputCoalescer(Long.MAX_VALUE, MAX_OUTPUT_BYTES, collector);
+        long caseStart = System.nanoTime();
+        try {
+            ResultCallback.Adapter<Frame> callback = dockerClient.execStartCmd(execId)
+                    .exec(new ResultCallback.Adapter<Frame>() {
+                        @Override
+                        public void onNext(Frame frame) {
+                            output.accept(frame.getStreamType(), frame.getPayload());
+                        }
+                    });
+
+            // timeout(1) has already killed the case by now; an exec that still hasn't
+            // finished means the container itself is stuck, so the batch can't go on
+            handle.onCancel(callback);
+            try {
+                if (!callback.awaitCompletion(timeout + CASE_KILL_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                    callback.close();
+                    throw new TimeoutException("test case " + (index + 1) + " did not finish after " + timeout + "s");
+                }
+            } finally {
+                handle.removeOnCancel(callback);
+            }
+            handle.checkCancelled();
+        } finally {
+            output.finish();
+        }
+        long timeMs = (System.nanoTime() - caseStart) / 1_000_000;
+        metrics.recordPhase("wait", lang, caseStart);
+
+        Long exitCode = dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+        int exit = exitCode != null ? exitCode.intValue() : 1;
+        // timeout -s KILL exits 128 + 9; so does an OOM kill, which comes before the deadline
+        boolean timedOut = exit == TIMED_OUT_EXIT_CODE && timeMs >= timeout * 1000L;
+        metrics.recordOutcome(timedOut ? "timeout" : "exited", lang);
+
+        ExecutionResponse collected = collector.toResponse();
+        if (collected.getStdoutOmittedBytes() > 0 || collected.getStderrOmittedBytes() > 0) {
+            metrics.recordTruncation(lang);
+        }
+        String stderr = collected.getStderr();
+        if (timedOut) {
+            stderr += "\nTime limit exceeded (" + timeout + "s)";
         }
+
+        Boolean passed = testCase.getExpectedOutput() == null ? null
+                : exit == 0 && normalizeOutput(collected.getStdout()).equals(normalizeOutput(testCase.getExpectedOutput()));
+        return new TestCaseResult(index, collected.getStdout(), stderr, exit, timeMs, timedOut, passed);
+    }
+
+    // Container totals: containers are single-use, so they're the run's own, plus the
+    // few milliseconds of the upload. State.OOMKilled and the stats API don't fit here:
+    // the former only covers the container's main process (sleep), and the latter
+    // waits for a sample interval and has no peak on cgroup v2.
+    private ResourceUsage readUsage(SandboxContainer container, ExecutionHandle handle) {
+        if (!resourceUsageEnabled) return null;
+        try {
+            HelperResult result = runHelper(container, List.of("sh", "-c", USAGE_SCRIPT), "/tmp",
+                    InputStream.nullInputStream(), timeoutSeconds, MAX_OUTPUT_BYTES, handle);
+            return parseUsage(new String(result.stdout(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.debug("Reading resource usage failed [{}]", container.executionId(), e);
+            return null;
+        }
+    }
+
+    private static ResourceUsage parseUsage(String counters) {
+        long cpuNanos = -1;
+        Long peakBytes = null;
+        long oomKills = 0;
+        for (String line : counters.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length != 2) continue;
+            long value;
+            try {
+                value = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            switch (parts[0]) {
+                case "usage_usec" -> cpuNanos = value * 1000;
+                case "cpuacct_ns" -> cpuNanos = value;
+                case "peak" -> peakBytes = value;
+                case "oom_kill" -> oomKills = value;
+                default -> {}
+            }
+        }
+        return cpuNanos < 0 ? null : new ResourceUsage(cpuNanos / 1_000_000, peakBytes, oomKills > 0);
+    }
+
+    // A batch is one history record: exit code 0 only if every case ran and succeeded
+    private static ExecutionRecord batchRecord(BatchExecutionRequest request, ExecutionHandle handle,
+                                               BatchExecutionResponse response) {
+        ExecutionRecord record = new ExecutionRecord();
+        record.setLanguage(request.getLanguage().toLowerCase());
+        record.setOutcome(handle.isCancelled() ? (handle.isExpired() ? "timeout" : "cancelled")
+                : response.getError() != null ? "failed" : "exited");
+        record.setExitCode(response.getError() == null && response.getSucceeded() == request.getCases().size() ? 0 : 1);
+        record.setTestCases(request.getCases().size());
+        record.setDurationMs(response.getExecutionTimeMs());
+        for (TestCaseResult result : response.getResults()) {
+            record.setStdoutBytes(record.getStdoutBytes() + ExecutionTally.utf8Length(result.getStdout()));
+            record.setStderrBytes(record.getStderrBytes() + ExecutionTally.utf8Length(result.getStderr()));
+        }
+        return record;
+    }
+
+    private static boolean succeeded(TestCaseResult result) {
+        return result.getExitCode() == 0 && !result.isTimedOut() && !Boolean.FALSE.equals(result.getPassed());
+    }
+
+    // Expected outputs are compared ignoring line endings and trailing whitespace
+    private static String normalizeOutput(String text) {
+        return text.lines().map(String::stripTrailing).collect(Collectors.joining("\n")).stripTrailing();
+    }
+
+    // Returns a container with the project (and build output) extracted to /tmp. A warm
+    // container's daemon may have died since it was pooled; nothing has run yet, so if the
+    // upload fails the execution moves to another host once.
+    private SandboxContainer acquireWithProject(String lang, String image, Map<String, byte[]> project,
+                                                byte[] artifacts, ExecutionHandle handle) throws Exception {
+        handle.checkCancelled();
+        long phaseStart = System.nanoTime();
+        SandboxContainer container = containerPool.acquire(lang, image);
+        metrics.recordPhase("acquire", lang, phaseStart);
+        killOnCancel(container, handle);
+
+        phaseStart = System.nanoTime();
+        try {
+            upload(container, project, artifacts, handle);
+        } catch (Exception e) {
+            containerPool.release(container);
+            if (handle.isCancelled()) throw e;
+            DockerHost failed = container.host();
+            hosts.reportFailure(failed, e);
+            if (hosts.byLoad().stream().allMatch(host -> host == failed)) throw e;
+            log.warn("Upload to {} failed, retrying on another host", failed, e);
+            container = containerPool.acquire(lang, image, failed);
+            killOnCancel(container, handle);
+            try {
+                upload(container, project, artifacts, handle);
+            } catch (Exception retryFailure) {
+                containerPool.release(container);
+                throw retryFailure;
+            }
+        }
+        metrics.recordPhase("upload", lang, phaseStart);
+        return container;
+    }
+
+    /** Build output of a compiled language; artifacts are null when compilation failed. */
+    private record Build(byte[] artifacts, int exitCode, String output) {}
+
+    private record HelperResult(int exitCode, byte[] stdout, String stderr) {}
+
+    // A late cancel reaps an already released container again, which the reaper ignores
+    private void killOnCancel(SandboxContainer container, ExecutionHandle handle) {
+        handle.onCancel(() -> containerPool.kill(container));
+    }
+
+    // Compiles in a separate build container with its own limits, unless an identical
+    // build is cached. The artifacts are /tmp/build as a tar, ready to extract into /tmp.
+    private Build build(String lang, LanguageRuntime runtime, Map<String, byte[]> project, ExecutionHandle handle)
+            throws Exception {
+        String image = runtime.getImage();
+        String compileCommand = runtime.getCompile();
+        String key = buildKey(image, compileCommand, project);
+        byte[] cached = buildCache.get(key);
+        if (cached != null) {
+            return new Build(cached, 0, "");
+        }
+
+        long phaseStart = System.nanoTime();
+        handle.checkCancelled();
+        SandboxContainer container = containerPool.acquireBuild(lang, image);
+        killOnCancel(container, handle);
+        try {
+            uploadTar(container, TarArchive.of(project), handle);
+
+            HelperResult compile = runHelper(container,
+                    List.of("sh", "-c", "mkdir -p /tmp/" + BUILD_DIR + " && " + compileCommand), "/tmp/" + PROJECT_DIR,
+                    InputStream.nullInputStream(), buildTimeoutSeconds, MAX_OUTPUT_BYTES, handle);
+            metrics.recordPhase("compile", lang, phaseStart);
+            if (compile.exitCode() != 0) {
+                String output = new String(compile.stdout(), StandardCharsets.UTF_8) + compile.stderr();
+                return new Build(null, compile.exitCode(), output);
+            }
+
+            HelperResult pack = runHelper(container, List.of("tar", "-c", "-f", "-", "-C", "/tmp", BUILD_DIR), "/tmp",
+                    InputStream.nullInputStream(), buildTimeoutSeconds, maxArtifactBytes, handle);
+            if (pack.exitCode() != 0) {
+                throw new IllegalStateException("collecting build output failed: " + pack.stderr().trim());
+            }
+            buildCache.put(key, pack.stdout());
+            return new Build(pack.stdout(), 0, "");
+        } finally {
+            containerPool.release(container);
+        }
+    }
+
+    private void upload(SandboxContainer container, Map<String, byte[]> project, byte[] artifacts,
+                        ExecutionHandle handle) throws Exception {
+        uploadTar(container, TarArchive.of(project), handle);
+        if (artifacts != null) {
+            uploadTar(container, new ByteArrayInputStream(artifacts), handle);
+        }
+    }
+
+    // Streams a tar archive into tar -x running in the container.
+    // docker cp can't be used: it rejects a read-only rootfs and doesn't see tmpfs mounts.
+    private void uploadTar(SandboxContainer container, InputStream tar, ExecutionHandle handle) throws Exception {
+        HelperResult result = runHelper(container, List.of("tar", "-x", "-f", "-", "-C", "/tmp"), "/tmp",
+                tar, timeoutSeconds, MAX_OUTPUT_BYTES, handle);
+        if (result.exitCode() != 0) {
+            throw new IllegalStateException("code upload failed: " + result.stderr().trim());
+        }
+    }
+
+    // Runs a command to completion, collecting stdout as bytes (up to maxStdoutBytes)
+    // and stderr as text
+    private HelperResult runHelper(SandboxContainer container, List<String> command, String workingDir,
+                                   InputStream stdin, int timeout, int maxStdoutBytes, ExecutionHandle handle)
+            throws Exception {
+        DockerClient dockerClient = container.host().getClient();
+        String execId = dockerClient.execCreateCmd(container.id())
+                .withCmd(command.toArray(String[]::new))
+                .withWorkingDir(workingDir)
+                .withAttachStdin(true)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec()
+                .getId();
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        AtomicBoolean overflow = new AtomicBoolean();
+        ResultCallback.Adapter<Frame> callback = dockerClient.execStartCmd(execId)
+                .withStdIn(stdin)
+                .exec(new ResultCallback.Adapter<Frame>() {
+                    @Override
+                    public void onNext(Frame frame) {
+                        byte[] payload = frame.getPayload();
+                        ByteArrayOutputStream target = frame.getStreamType() == StreamType.STDOUT ? stdout : stderr;
+                        int limit = target == stdout ? maxStdoutBytes : MAX_OUTPUT_BYTES;
+                        if (target.size() + payload.length > limit) {
+                            if (target == stdout) overflow.set(true);
+                            target.write(payload, 0, Math.max(0, limit - target.size()));
+                        } else {
+                            target.write(payload, 0, payload.length);
+                        }
+                    }
+                });
+
+        handle.onCancel(callback);
+        try {
+            if (!callback.awaitCompletion(timeout, TimeUnit.SECONDS)) {
+                callback.close();
+                throw new TimeoutException(command.get(0) + " timed out after " + timeout + "s");
+            }
+        } finally {
+            handle.removeOnCancel(callback);
+        }
+        handle.checkCancelled();
+        if (overflow.get()) {
+            throw new IllegalStateException(command.get(0) + " output exceeds " + maxStdoutBytes / 1024 + "KB");
+        }
+        Long exitCode = dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+        return new HelperResult(exitCode != null ? exitCode.intValue() : 1, stdout.toByteArray(),
+                stderr.toString(StandardCharsets.UTF_8));
+    }
+
+    // Tar entry name -> content, with the main file first; ordered so the cache key is stable
+    private Map<String, byte[]> projectFiles(ExecutionRequest request, LanguageRuntime runtime) {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        byte[] code = request.getCode().getBytes(StandardCharsets.UTF_8);
+        files.put(PROJECT_DIR + "/" + runtime.getMainFile(), code);
+        long totalBytes = code.length;
+
+        if (request.getFiles() != null) {
+            for (ProjectFile file : request.getFiles()) {
+                byte[] content = file.getContent().getBytes(StandardCharsets.UTF_8);
+                if (files.put(PROJECT_DIR + "/" + file.getPath(), content) != null) {
+                    throw new IllegalArgumentException("Duplicate project file: " + file.getPath());
+                }
+                totalBytes += content.length;
+            }
+        }
+        if (totalBytes > maxProjectBytes) {
+            throw new IllegalArgumentException("Project exceeds " + maxProjectBytes / 1024 + "KB");
+        }
+        return files;
+    }
+
+    /**
+     * How long the request may take once it starts running before the watchdog stops it:
+     * the build, then each run or test case. 0 for an unsupported language.
+     */
+    public long deadlineMillis(ExecutionRequest request) {
+        LanguageRuntime runtime = languages.get(request.getLanguage().toLowerCase());
+        if (runtime == null) return 0;
+        int runs = request instanceof BatchExecutionRequest batch ? batch.getCases().size() : 1;
+        return deadlineMillis(runtime, runs);
+    }
+
+    // Hard deadline for the watchdog: the build, every run with its kill grace, and
+    // headroom for acquiring and uploading
+    private long deadlineMillis(LanguageRuntime runtime, int runs) {
+        long seconds = (runtime.isCompiled() ? buildTimeoutSeconds : 0)
+                + (long) runs * (runtime.getTimeoutSeconds() + CASE_KILL_GRACE_SECONDS)
+                + deadlineGraceSeconds;
+        return seconds * 1000;
+    }
+
+    private static String entrypoint(ExecutionRequest request, LanguageRuntime runtime, Map<String, byte[]> project) {
+        String entrypoint = request.getEntrypoint() != null ? request.getEntrypoint() : runtime.getMainFile();
+        if (!project.containsKey(PROJECT_DIR + "/" + entrypoint)) {
+            throw new IllegalArgumentException("Entrypoint not found in project: " + entrypoint);
+        }
+        return entrypoint;
+    }
+
+    private String cacheKey(String lang, LanguageRuntime runtime, Map<String, byte[]> project, String entrypoint,
+                            String stdin, long maxOutputBytes) {
+        List<byte[]> parts = new ArrayList<>();
+        String limits = runtime.getTimeoutSeconds() + "/" + runtime.getMemoryLimitMb() + "/" + runtime.getCpuLimit()
+                + "/" + runtime.getPidsLimit() + "/" + maxOutputBytes;
+        String commands = String.join(" ", runtime.getRun()) + "\n" + (runtime.isCompiled() ? runtime.getCompile() : "");
+        for (String part : List.of(lang, runtime.getImage(), commands, entrypoint, stdin != null ? stdin : "", limits)) {
+            parts.add(part.getBytes(StandardCharsets.UTF_8));
+        }
+        project.forEach((path, content) -> {
+            parts.add(path.getBytes(StandardCharsets.UTF_8));
+            parts.add(content);
+        });
+        return resultCache.key(parts);
+    }
+
+    private String buildKey(String image, String compileCommand, Map<String, byte[]> project) {
+        List<byte[]> parts = new ArrayList<>();
+        parts.add(image.getBytes(StandardCharsets.UTF_8));
+        parts.add(compileCommand.getBytes(StandardCharsets.UTF_8));
+        project.forEach((path, content) -> {
+            parts.add(path.getBytes(StandardCharsets.UTF_8));
+            parts.add(content);
+        });
+        return resultCache.key(parts);
+    }
+
+    private static Map<String, byte[]> withStdinFiles(Map<String, byte[]> project, List<String> inputs) {
+        Map<String, byte[]> files = new LinkedHashMap<>(project);
+        for (int i = 0; i < inputs.size(); i++) {
+            String input = inputs.get(i);
+            files.put(STDIN_DIR + "/" + i, (input != null ? input : "").getBytes(StandardCharsets.UTF_8));
+        }
+        return files;
+    }
+
+    /** The command with its stdin redirected from the {@code index}th uploaded stdin file. */
+    static List<String> withStdinFile(List<String> command, int index) {
+        String script = "exec \"$@\" < /tmp/" + STDIN_DIR + "/" + index;
+        List<String> wrapped = new ArrayList<>(List.of("sh", "-c", script, "sh"));
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /** The command reading {@link StdinPipe#framed()} input from the exec's stdin. */
+    static List<String> withFramedStdin(List<String> command) {
+        List<String> wrapped = new ArrayList<>(List.of("sh", "-c", FRAMED_STDIN_SCRIPT, "sh"));
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    private static List<String> runCommand(LanguageRuntime runtime, String entrypoint) {
+        String javaClass = entrypoint.replaceAll("\\.java$", "").replace('/', '.');
+        return runtime.getRun().stream()
+                .map(arg -> arg.replace("{entrypoint}", entrypoint).replace("{class}", javaClass))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        outputFlusher.shutdownNow();
     }
 }
@@ -0,0 +1,340 @@
+package com.arashbox.service;
+
+import com.arashbox.config.ContainerPoolProperties;
+import com.arashbox.config.LanguageRuntime;
+import com.github.dockerjava.api.model.Capability;
+import com.github.dockerjava.api.model.HostConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps started, idle sandbox containers ready per Docker host and language so an
+ * execution only pays for an exec instead of a full create + start. Containers are
+ * single-use: each one is discarded after its execution and the pool refills in the
+ * background. Each run is placed on the least-loaded healthy host, falling over to the
+ * next one if a daemon fails to create or start the container.
+ */
+@Component
+public class ContainerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerPool.class);
+
+    private final DockerHostRegistry hosts;
+    private final LanguageRegistry languages;
+    private final ContainerPoolProperties properties;
+    private final ExecutionMetrics metrics;
+    private final ContainerReaper reaper;
+    private final Map<String, LanguagePool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refiller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "container-pool-refill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${arashbox.reaper.max-container-age-seconds:600}")
+    private long maxContainerAgeSeconds;
+
+    @Value("${arashbox.build.memory-limit-mb:1024}")
+    private int buildMemoryLimitMb;
+
+    @Value("${arashbox.build.cpu-limit:1.0}")
+    private double buildCpuLimit;
+
+    public ContainerPool(DockerHostRegistry hosts, LanguageRegistry languages, ContainerPoolProperties properties,
+                         ExecutionMetrics metrics, ContainerReaper reaper) {
+        this.hosts = hosts;
+        this.languages = languages;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.reaper = reaper;
+    }
+
+    // Right after the reaper starts, and before the runtime warm-up
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void start() {
+        if (!properties.isEnabled()) return;
+
+        for (DockerHost host : hosts.getHosts()) {
+            languages.getRuntimes().forEach((language, runtime) -> {
+                LanguagePool pool = new LanguagePool(host, language, runtime.getImage(),
+                        properties.minSizeFor(language), properties.maxSizeFor(language));
+                pools.put(key(host, language), pool);
+                scheduleRefill(pool);
+            });
+        }
+
+        long interval = properties.getShrinkIntervalMs();
+        refiller.scheduleWithFixedDelay(this::shrinkIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a started container for the language on the least-loaded healthy host,
+     * taking a warm one when available and creating one on the caller's thread otherwise.
+     */
+    public SandboxContainer acquire(String language, String image) {
+        return acquire(language, image, null);
+    }
+
+    /** Same as {@link #acquire(String, String)}, but never places the run on {@code exclude}. */
+    public SandboxContainer acquire(String language, String image, DockerHost exclude) {
+        RuntimeException failure = null;
+        for (DockerHost host : hosts.byLoad()) {
+            if (host == exclude) continue;
+            try {
+                SandboxContainer container = acquireOn(host, language, image);
+                reaper.checkOut(container);
+                host.acquired();
+                return container;
+            } catch (RuntimeException e) {
+                log.warn("Failed to place {} execution on {}", language, host, e);
+                hosts.reportFailure(host, e);
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new IllegalStateException("No healthy Docker host available");
+    }
+
+    private SandboxContainer acquireOn(DockerHost host, String language, String image) {
+        LanguagePool pool = pools.get(key(host, language));
+        if (pool != null) {
+            SandboxContainer container = pool.idle.poll();
+            if (container != null) {
+                hits.incrementAndGet();
+                scheduleRefill(pool);
+                return container;
+            }
+            misses.incrementAndGet();
+            pool.recentMisses.incrementAndGet();
+            pool.grow();
+            scheduleRefill(pool);
+        }
+        return createContainer(host, language, image, runHostConfig(language));
+    }
+
+    /**
+     * Returns a fresh container for compiling, with the build limits (more memory, CPU,
+     * processes and scratch space than a run gets). Build containers aren't pooled:
+     * a compile takes far longer than creating one, and cached builds skip it anyway.
+     */
+    public SandboxContainer acquireBuild(String language, String image) {
+        RuntimeException failure = null;
+        for (DockerHost host : hosts.byLoad()) {
+            try {
+                SandboxContainer container = createContainer(host, language, image, buildHostConfig());
+                reaper.checkOut(container);
+                host.acquired();
+                return container;
+            } catch (RuntimeException e) {
+                log.warn("Failed to place {} build on {}", language, host, e);
+                hosts.reportFailure(host, e);
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new IllegalStateException("No healthy Docker host available");
+    }
+
+    /** Discards a container handed out by {@link #acquire} or {@link #acquireBuild}. Containers are never reused. */
+    public void release(SandboxContainer container) {
+        container.host().released();
+        reaper.checkIn(container);
+        reaper.reap(container);
+    }
+
+    /**
+     * Kills a container that is still checked out, e.g. for a cancelled run. The run must
+     * still {@link #release} it afterwards.
+     */
+    public void kill(SandboxContainer container) {
+        reaper.reap(container);
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public int getIdleCount(String language) {
+        int idle = 0;
+        for (DockerHost host : hosts.getHosts()) {
+            LanguagePool pool = pools.get(key(host, language));
+            if (pool != null) idle += pool.idle.size();
+        }
+        return idle;
+    }
+
+    private static String key(DockerHost host, String language) {
+        return host.getName() + "/" + language;
+    }
+
+    private void scheduleRefill(LanguagePool pool) {
+        if (pool.refillScheduled.compareAndSet(false, true)) {
+            refiller.execute(() -> refill(pool));
+        }
+    }
+
+    private void refill(LanguagePool pool) {
+        pool.refillScheduled.set(false);
+        while (pool.host.isHealthy() && pool.idle.size() < pool.target.get()) {
+            try {
+                pool.idle.offer(createContainer(pool.host, pool.language, pool.image, runHostConfig(pool.language)));
+            } catch (Exception e) {
+                log.warn("Failed to pre-warm container for image {} on {}", pool.image, pool.host, e);
+                hosts.reportFailure(pool.host, e);
+                return;
+            }
+        }
+    }
+
+    // Under load the target grows towards max-size on misses; once the misses stop,
+    // it decays back to min-size one step per interval and excess idle containers go.
+    // Idle containers too close to their deadline for a full run are recycled, so the
+    // reaper's sweep never finds an idle pool container past its deadline. Idle containers
+    // on a host that stopped responding are dropped; the sweep removes them once it's back.
+    private void shrinkIdle() {
+        long now = System.currentTimeMillis();
+        for (LanguagePool pool : pools.values()) {
+            if (!pool.host.isHealthy()) {
+                pool.idle.clear();
+                continue;
+            }
+            long recycleBefore = now + (languages.get(pool.language).getTimeoutSeconds() + 60) * 1000L;
+            pool.idle.removeIf(container -> {
+                if (container.deadlineMillis() > recycleBefore) return false;
+                reaper.reap(container);
+                return true;
+            });
+
+            if (pool.recentMisses.getAndSet(0) == 0) {
+                pool.shrink();
+                while (pool.idle.size() > pool.target.get()) {
+                    SandboxContainer container = pool.idle.poll();
+                    if (container == null) break;
+                    reaper.reap(container);
+                }
+            }
+            scheduleRefill(pool);
+        }
+    }
+
+    private HostConfig runHostConfig(String language) {
+        LanguageRuntime runtime = languages.get(language);
+        String tmpfs = (runtime.isExecTmpfs() ? "rw,exec" : "rw,noexec") + ",size=" + runtime.getTmpfsSizeMb() + "m";
+        return HostConfig.newHostConfig()
+                .withMemory((long) runtime.getMemoryLimitMb() * 1024 * 1024)
+                .withCpuQuota((long) (runtime.getCpuLimit() * 100_000))
+                .withNetworkMode("none")
+                .withReadonlyRootfs(true)
+                .withTmpFs(Map.of("/tmp", tmpfs))
+                .withPidsLimit(runtime.getPidsLimit())
+                .withCapDrop(Capability.ALL);
+    }
+
+    private HostConfig buildHostConfig() {
+        return HostConfig.newHostConfig()
+                .withMemory((long) buildMemoryLimitMb * 1024 * 1024)
+                .withCpuQuota((long) (buildCpuLimit * 100_000))
+                .withNetworkMode("none")
+                .withReadonlyRootfs(true)
+                .withTmpFs(Map.of("/tmp", "rw,noexec,size=512m"))
+                .withPidsLimit(128L)
+                .withCapDrop(Capability.ALL);
+    }
+
+    private SandboxContainer createContainer(DockerHost host, String language, String image, HostConfig hostConfig) {
+        long createStart = System.nanoTime();
+        String executionId = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + maxContainerAgeSeconds * 1000;
+        String containerId = host.getClient().createContainerCmd(image)
+                .withLabels(ContainerReaper.labels(executionId, deadline))
+                .withEnv(env(language))
+                .withCmd("sleep", "infinity")
+                .withHostConfig(hostConfig)
+                .withUser("nobody")
+                .withTty(false)
+                .exec()
+                .getId();
+        metrics.recordPhase("create", language, createStart);
+        SandboxContainer container = new SandboxContainer(host, containerId, executionId, deadline);
+
+        try {
+            long startStart = System.nanoTime();
+            host.getClient().startContainerCmd(containerId).exec();
+            metrics.recordPhase("start", language, startStart);
+        } catch (RuntimeException e) {
+            reaper.reap(container);
+            throw e;
+        }
+        hosts.reportSuccess(host);
+        return container;
+    }
+
+    // /tmp is the only writable place, so toolchains get it as their home
+    private List<String> env(String language) {
+        List<String> env = new ArrayList<>();
+        env.add("HOME=/tmp");
+        env.addAll(languages.get(language).getEnv());
+        return env;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refiller.shutdownNow();
+        for (LanguagePool pool : pools.values()) {
+            SandboxContainer container;
+            while ((container = pool.idle.poll()) != null) {
+                reaper.reap(container);
+            }
+        }
+    }
+
+    private static class LanguagePool {
+        final DockerHost host;
+        final String language;
+        final String image;
+        final int minSize;
+        final int maxSize;
+        final ConcurrentLinkedQueue<SandboxContainer> idle = new ConcurrentLinkedQueue<>();
+        final AtomicInteger target;
+        final AtomicInteger recentMisses = new AtomicInteger();
+        final AtomicBoolean refillScheduled = new AtomicBoolean();
+
+        LanguagePool(DockerHost host, String language, String image, int minSize, int maxSize) {
+            this.host = host;
+            this.language = language;
+            this.image = image;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.target = new AtomicInteger(minSize);
+        }
+
+        void grow() {
+            target.updateAndGet(t -> Math.min(maxSize, t + 1));
+        }
+
+        void shrink() {
+            target.updateAndGet(t -> Math.max(minSize, t - 1));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.arashbox.service;
+
+import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Container;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes sandbox containers off the execution path. Callers hand over containers
+ * and return immediately; a background worker drains them in batches and removes each
+ * batch concurrently. Every sandbox container carries the {@link #LABEL} label and a
+ * deadline, and a periodic sweep of every healthy host (also run at startup, to clean
+ * up after a crash) removes any that outlived it. Containers checked out to a run are
+ * left alone: a batch can outlive the deadline set at creation, and the run's watchdog
+ * bounds it instead.
+ */
+@Component
+public class ContainerReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerReaper.class);
+
+    public static final String LABEL = "arashbox";
+    public static final String LABEL_VALUE = "sandbox";
+    public static final String EXECUTION_ID_LABEL = "arashbox.execution-id";
+    public static final String DEADLINE_LABEL = "arashbox.deadline";
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final DockerHostRegistry hosts;
+    private final ExecutionMetrics metrics;
+    private final Set<String> checkedOut = ConcurrentHashMap.newKeySet();
+    private final LinkedBlockingQueue<SandboxContainer> pending = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final ExecutorService removers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "container-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Thread worker;
+
+    @Value("${arashbox.reaper.batch-size:32}")
+    private int batchSize;
+
+    @Value("${arashbox.reaper.sweep-interval-seconds:60}")
+    private long sweepIntervalSeconds;
+
+    public ContainerReaper(DockerHostRegistry hosts, ExecutionMetrics metrics) {
+        this.hosts = hosts;
+        this.metrics = metrics;
+        this.worker = Thread.ofPlatform().name("container-reaper").daemon(true).unstarted(this::drainLoop);
+    }
+
+    // First of the ready listeners, so anything started after it can already reap
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        worker.start();
+        sweeper.scheduleWithFixedDelay(this::sweep, 0, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Labels every sandbox container gets at creation. */
+    public static Map<String, String> labels(String executionId, long deadlineMillis) {
+        return Map.of(LABEL, LABEL_VALUE,
+                EXECUTION_ID_LABEL, executionId,
+                DEADLINE_LABEL, Long.toString(deadlineMillis));
+    }
+
+    /** Queues a container for removal. Falls back to removing inline if the queue is full. */
+    public void reap(SandboxContainer container) {
+        if (!pending.offer(container)) {
+            remove(container);
+        }
+    }
+
+    /** Marks a container as held by a run, so the sweep won't remove it. */
+    public void checkOut(SandboxContainer container) {
+        checkedOut.add(container.id());
+    }
+
+    /** Ends {@link #checkOut}; the container falls under the sweep again. */
+    public void checkIn(SandboxContainer container) {
+        checkedOut.remove(container.id());
+    }
+
+    public int getPending() { return pending.size(); }
+
+    private void drainLoop() {
+        List<SandboxContainer> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch, batchSize - 1);
+            removeAll(batch);
+            batch.clear();
+        }
+    }
+
+    private void removeAll(List<SandboxContainer> containers) {
+        List<Future<?>> removals = new ArrayList<>(containers.size());
+        for (SandboxContainer container : containers) {
+            removals.add(removers.submit(() -> remove(container)));
+        }
+        for (Future<?> removal : removals) {
+            try {
+                removal.get();
+            } catch (Exception e) {
+                // remove() already logs its own failures
+            }
+        }
+    }
+
+    private void remove(SandboxContainer container) {
+        long removeStart = System.nanoTime();
+        try {
+            container.host().getClient().removeContainerCmd(container.id()).withForce(true).exec();
+        } catch (NotFoundException | ConflictException e) {
+            // Already removed, or being removed: a cancelled run's container is reaped twice
+        } catch (Exception e) {
+            log.warn("Failed to remove container {} on {}", container.id(), container.host(), e);
+        }
+        metrics.recordPhase("remove", "all", removeStart);
+    }
+
+    // Containers past their deadline are leaked: their execution is long over, or the
+    // JVM that owned them died. Idle pool containers are recycled before their deadline,
+    // and containers this node has checked out are skipped.
+    void sweep() {
+        for (DockerHost host : hosts.byLoad()) {
+            sweep(host);
+        }
+    }
+
+    private void sweep(DockerHost host) {
+        try {
+            long now = System.currentTimeMillis();
+            List<Container> containers = host.getClient().listContainersCmd()
+                    .withShowAll(true)
+                    .withLabelFilter(Map.of(LABEL, LABEL_VALUE))
+                    .exec();
+            int expired = 0;
+            for (Container container : containers) {
+                Map<String, String> labels = container.getLabels() != null ? container.getLabels() : Map.of();
+                String deadline = labels.get(DEADLINE_LABEL);
+                long deadlineMillis = deadline != null ? Long.parseLong(deadline) : 0;
+                if (deadlineMillis < now && !checkedOut.contains(container.getId())) {
+                    reap(new SandboxContainer(host, container.getId(), labels.get(EXECUTION_ID_LABEL), deadlineMillis));
+                    expired++;
+                }
+            }
+            if (expired > 0) {
+                log.info("Sweeping {} expired sandbox containers on {}", expired, host);
+            }
+        } catch (Exception e) {
+            log.warn("Sandbox container sweep failed on {}", host, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        worker.interrupt();
+        List<SandboxContainer> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        removeAll(remaining);
+        removers.shutdown();
+    }
+}
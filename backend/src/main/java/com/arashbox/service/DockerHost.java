@@ -0,0 +1,61 @@
+package com.arashbox.service;
+
+import com.github.dockerjava.api.DockerClient;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** One Docker daemon executions can be placed on, with its live load and health. */
+public final class DockerHost {
+
+    private final String name;
+    private final DockerClient client;
+    private final int weight;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean healthy = true;
+
+    DockerHost(String name, DockerClient client, int weight) {
+        this.name = name;
+        this.client = client;
+        this.weight = Math.max(1, weight);
+    }
+
+    public String getName() { return name; }
+    public DockerClient getClient() { return client; }
+    public int getWeight() { return weight; }
+    public int getActive() { return active.get(); }
+    public boolean isHealthy() { return healthy; }
+
+    /** Executions running here per unit of weight. */
+    double load() {
+        return (double) active.get() / weight;
+    }
+
+    void acquired() { active.incrementAndGet(); }
+    void released() { active.decrementAndGet(); }
+
+    boolean startProbe() { return probing.compareAndSet(false, true); }
+    void endProbe() { probing.set(false); }
+
+    /** Returns true if this call brought the host back. */
+    boolean recordSuccess() {
+        failures.set(0);
+        if (healthy) return false;
+        healthy = true;
+        return true;
+    }
+
+    /** Returns true if this call took the host out of rotation. */
+    boolean recordFailure(int threshold) {
+        if (failures.incrementAndGet() < threshold || !healthy) return false;
+        healthy = false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
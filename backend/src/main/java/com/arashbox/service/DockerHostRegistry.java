@@ -0,0 +1,111 @@
+package com.arashbox.service;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.config.DockerProperties;
+import com.github.dockerjava.api.exception.DockerException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Docker daemons executions are spread over. Runs go to the healthy host with the
+ * lowest weighted load; a host that fails {@code failure-threshold} calls or probes in a
+ * row is taken out of rotation until a health probe succeeds again.
+ */
+@Component
+public class DockerHostRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DockerHostRegistry.class);
+
+    private static final Comparator<DockerHost> BY_LOAD = Comparator.comparingDouble(DockerHost::load);
+
+    private final List<DockerHost> hosts = new ArrayList<>();
+    private final int failureThreshold;
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "docker-health");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public DockerHostRegistry(DockerProperties properties, DockerClientFactory clientFactory) {
+        List<DockerProperties.Host> configured = properties.getHosts();
+        if (configured.isEmpty()) {
+            configured = List.of(new DockerProperties.Host());
+        }
+        for (int i = 0; i < configured.size(); i++) {
+            DockerProperties.Host host = configured.get(i);
+            String name = host.getName() != null ? host.getName() : "docker-" + i;
+            hosts.add(new DockerHost(name, clientFactory.create(host), host.getWeight()));
+        }
+        this.failureThreshold = Math.max(1, properties.getFailureThreshold());
+
+        long interval = properties.getHealthCheckIntervalMs();
+        prober.scheduleWithFixedDelay(this::probeAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public List<DockerHost> getHosts() { return hosts; }
+
+    /** Healthy hosts, least loaded first. Empty when every daemon is down. */
+    public List<DockerHost> byLoad() {
+        return hosts.stream().filter(DockerHost::isHealthy).sorted(BY_LOAD).toList();
+    }
+
+    public void reportSuccess(DockerHost host) {
+        if (host.recordSuccess()) {
+            log.info("Docker host {} is back in rotation", host);
+        }
+    }
+
+    /**
+     * Counts a failed call against the host. Errors the daemon itself answered with
+     * (missing image, conflict, ...) say nothing about its health and are ignored.
+     */
+    public void reportFailure(DockerHost host, Exception e) {
+        if (!(e instanceof DockerException)) {
+            markFailed(host, e);
+        }
+    }
+
+    private void markFailed(DockerHost host, Exception e) {
+        if (host.recordFailure(failureThreshold)) {
+            log.warn("Docker host {} is not responding, taking it out of rotation: {}", host, e.toString());
+        }
+    }
+
+    // Each probe runs on its own virtual thread so one hung daemon can't delay the others
+    private void probeAll() {
+        for (DockerHost host : hosts) {
+            if (!host.startProbe()) continue;
+            Thread.ofVirtual().name("docker-health-" + host.getName()).start(() -> {
+                try {
+                    host.getClient().pingCmd().exec();
+                    reportSuccess(host);
+                } catch (Exception e) {
+                    markFailed(host, e);
+                } finally {
+                    host.endProbe();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prober.shutdownNow();
+        for (DockerHost host : hosts) {
+            try {
+                host.getClient().close();
+            } catch (Exception e) {
+                log.debug("Failed to close Docker client for {}", host, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.arashbox.service;
+
+/** Thrown inside a run once its {@link ExecutionHandle} has been cancelled. */
+class ExecutionCancelledException extends Exception {
+
+    ExecutionCancelledException(String reason) {
+        super(reason);
+    }
+}
@@ -0,0 +1,103 @@
+package com.arashbox.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets other threads stop a run: a client cancel, a disconnect or the watchdog's hard
+ * deadline. The run registers what it is blocked on (its exec stream, its container) and
+ * cancelling closes those right away, so the run's thread wakes within milliseconds and
+ * frees its scheduler slot. A run cancelled while still queued returns as soon as it starts.
+ * The handle also carries who started the run, for the execution history.
+ */
+public class ExecutionHandle {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionHandle.class);
+
+    private final String userId;
+    private final String clientIp;
+    private final List<AutoCloseable> onCancel = new ArrayList<>();
+    private String reason;
+    private boolean expired;
+
+    /** A handle for an internal run, which isn't recorded. */
+    public ExecutionHandle() {
+        this(null, null);
+    }
+
+    /** A handle for a client's run; {@code userId} is null for anonymous clients. */
+    public ExecutionHandle(String userId, String clientIp) {
+        this.userId = userId;
+        this.clientIp = clientIp;
+    }
+
+    public String getUserId() { return userId; }
+    public String getClientIp() { return clientIp; }
+
+    public boolean hasClient() { return userId != null || clientIp != null; }
+
+    /** Stops the run; later calls are ignored. */
+    public void cancel(String reason) {
+        List<AutoCloseable> actions;
+        synchronized (this) {
+            if (this.reason != null) return;
+            this.reason = reason;
+            actions = new ArrayList<>(onCancel);
+            onCancel.clear();
+        }
+        for (AutoCloseable action : actions) {
+            close(action);
+        }
+    }
+
+    public synchronized boolean isCancelled() { return reason != null; }
+
+    public synchronized String getReason() { return reason; }
+
+    /** True when the run was stopped by its deadline rather than by a client. */
+    public synchronized boolean isExpired() { return expired; }
+
+    // Returns false if the run had already been cancelled
+    boolean expire() {
+        synchronized (this) {
+            if (reason != null) return false;
+            expired = true;
+        }
+        cancel("exceeded its deadline");
+        return true;
+    }
+
+    /** Runs {@code action} when the run is cancelled, or right away if it already was. */
+    void onCancel(AutoCloseable action) {
+        synchronized (this) {
+            if (reason == null) {
+                onCancel.add(action);
+                return;
+            }
+        }
+        close(action);
+    }
+
+    synchronized void removeOnCancel(AutoCloseable action) {
+        onCancel.remove(action);
+    }
+
+    /** Throws if the run was cancelled, for the points between blocking steps. */
+    void checkCancelled() throws ExecutionCancelledException {
+        String cancelReason = getReason();
+        if (cancelReason != null) {
+            throw new ExecutionCancelledException(cancelReason);
+        }
+    }
+
+    private static void close(AutoCloseable action) {
+        try {
+            action.close();
+        } catch (Exception e) {
+            log.debug("Cancel action failed", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.ExecutionRecordPage;
+import com.arashbox.model.CodeBlob;
+import com.arashbox.model.ExecutionRecord;
+import com.arashbox.repository.ExecutionRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind log of finished executions. Runs hand their record to a bounded queue
+ * and return; a background writer inserts the queue in JDBC batches once batch-size
+ * records are waiting or the oldest has waited flush-interval-ms, so a run never waits
+ * on the database. When the database falls behind and the queue fills, records are
+ * dropped (the newest or the oldest, per overflow-policy) and counted. Shutdown writes
+ * whatever is still queued.
+ */
+@Service
+public class ExecutionHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionHistory.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String INSERT = """
+            insert into execution_records (user_id, client_ip, language, code_hash, outcome, exit_code,
+                test_cases, duration_ms, stdout_bytes, stderr_bytes, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final ExecutionRecordRepository recordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ArrayBlockingQueue<ExecutionRecord> pending;
+    private final Thread writer;
+    private volatile boolean stopping;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Value("${arashbox.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${arashbox.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${arashbox.history.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${arashbox.history.overflow-policy:drop-newest}")
+    private String overflowPolicy;
+
+    public ExecutionHistory(ExecutionRecordRepository recordRepository, JdbcTemplate jdbcTemplate,
+                            @Value("${arashbox.history.queue-capacity:10000}") int queueCapacity) {
+        this.recordRepository = recordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Thread.ofPlatform().name("execution-history").daemon(true).unstarted(this::writeLoop);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues a finished run for writing; never blocks. Internal runs (a handle with no
+     * client, like the warm-up) aren't recorded. {@code code} is the main file, stored
+     * only as its hash.
+     */
+    public void record(ExecutionHandle handle, ExecutionRecord record, String code) {
+        if (!enabled || !handle.hasClient()) return;
+
+        record.setUserId(handle.getUserId());
+        record.setClientIp(handle.getClientIp());
+        record.setCodeHash(code != null ? CodeBlob.hash(code.getBytes(StandardCharsets.UTF_8)) : null);
+        record.setCreatedAt(LocalDateTime.now());
+
+        if ("drop-oldest".equals(overflowPolicy)) {
+            while (!pending.offer(record)) {
+                if (pending.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        } else if (!pending.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * One page of the user's runs, newest first, keyed like the snippet listing. Runs
+     * still waiting in the queue show up once the writer has flushed them.
+     */
+    public ExecutionRecordPage findByUserId(String userId, String cursor, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(size + 1);
+
+        List<ExecutionRecord> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = recordRepository.findRecent(userId, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = recordRepository.findRecentAfter(userId, after.at(), after.id(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new ExecutionRecordPage(rows, null);
+        }
+        List<ExecutionRecord> items = rows.subList(0, size);
+        ExecutionRecord last = items.get(size - 1);
+        return new ExecutionRecordPage(List.copyOf(items), new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /** Records inserted since startup. */
+    public long getWritten() { return written.get(); }
+    /** Records lost to a full queue or a failed insert. */
+    public long getDropped() { return dropped.get(); }
+    public int getPending() { return pending.size(); }
+
+    private void writeLoop() {
+        List<ExecutionRecord> batch = new ArrayList<>(batchSize);
+        while (!stopping) {
+            try {
+                ExecutionRecord first = pending.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Fill the batch until it's full or the first record has waited a flush interval
+                long flushAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && !stopping) {
+                    pending.drainTo(batch, batchSize - batch.size());
+                    long wait = flushAt - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) break;
+                    ExecutionRecord next = pending.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<ExecutionRecord> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, r) -> {
+                ps.setString(1, r.getUserId());
+                ps.setString(2, r.getClientIp());
+                ps.setString(3, r.getLanguage());
+                ps.setString(4, r.getCodeHash());
+                ps.setString(5, r.getOutcome());
+                if (r.getExitCode() != null) ps.setInt(6, r.getExitCode()); else ps.setNull(6, Types.INTEGER);
+                if (r.getTestCases() != null) ps.setInt(7, r.getTestCases()); else ps.setNull(7, Types.INTEGER);
+                ps.setLong(8, r.getDurationMs());
+                ps.setLong(9, r.getStdoutBytes());
+                ps.setLong(10, r.getStderrBytes());
+                ps.setTimestamp(11, Timestamp.valueOf(r.getCreatedAt()));
+            });
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            log.warn("Failed to write {} execution records", batch.size(), e);
+            dropped.addAndGet(batch.size());
+        }
+    }
+
+    // The writer finishes its current batch (the JDBC call isn't interrupted), then
+    // whatever is still queued is written from here
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        try {
+            writer.join(flushIntervalMs + 10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<ExecutionRecord> remaining = new ArrayList<>(batchSize);
+        while (pending.drainTo(remaining, batchSize) > 0) {
+            write(remaining);
+            remaining.clear();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.ResourceUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase latency and outcome counters for executions. Phases are tagged so one
+ * histogram family covers the whole container lifecycle:
+ * compile, acquire, create, start, upload, first_output, wait and remove.
+ */
+@Component
+public class ExecutionMetrics {
+
+    private final MeterRegistry registry;
+
+    public ExecutionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordPhase(String phase, String language, long startNanos) {
+        Timer.builder("arashbox.execution.phase")
+                .description("Time spent in each execution phase")
+                .tag("phase", phase)
+                .tag("language", language)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(String outcome, String language) {
+        Counter.builder("arashbox.execution.outcome")
+                .description("Finished executions by outcome: exited, oom_killed, compile_error, timeout, cancelled, failed")
+                .tag("outcome", outcome)
+                .tag("language", language)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordUsage(String language, ResourceUsage usage) {
+        Timer.builder("arashbox.execution.cpu")
+                .description("CPU time used by each run")
+                .tag("language", language)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(usage.getCpuTimeMs(), TimeUnit.MILLISECONDS);
+        if (usage.getPeakMemoryBytes() != null) {
+            DistributionSummary.builder("arashbox.execution.memory.peak")
+                    .description("Peak memory of each run's container")
+                    .baseUnit("bytes")
+                    .tag("language", language)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(usage.getPeakMemoryBytes());
+        }
+    }
+
+    public void recordTruncation(String language) {
+        Counter.builder("arashbox.execution.truncations")
+                .description("Executions whose output hit the output limit")
+                .tag("language", language)
+                .register(registry)
+                .increment();
+    }
+}
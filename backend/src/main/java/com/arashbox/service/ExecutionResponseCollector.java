@@ -0,0 +1,52 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.dto.OutputFrame;
+import com.arashbox.dto.ResourceUsage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Folds a run's frame stream into the single REST {@link ExecutionResponse}. Each stream
+ * keeps only its head and tail (see {@link OutputCapture}), so a chatty program costs a
+ * fixed amount of memory and its last lines still reach the caller.
+ */
+class ExecutionResponseCollector implements Consumer<OutputFrame> {
+
+    private final OutputCapture stdout;
+    private final OutputCapture stderr;
+    private int exitCode = 1;
+    private long executionTimeMs;
+    private boolean timedOut;
+    private ResourceUsage usage;
+
+    ExecutionResponseCollector(int headBytes, int tailBytes) {
+        this.stdout = new OutputCapture(headBytes, tailBytes);
+        this.stderr = new OutputCapture(headBytes, tailBytes);
+    }
+
+    @Override
+    public synchronized void accept(OutputFrame frame) {
+        switch (frame.getType()) {
+            case "stdout" -> stdout.append(frame.getData().getBytes(StandardCharsets.UTF_8));
+            case "stderr" -> stderr.append(frame.getData().getBytes(StandardCharsets.UTF_8));
+            case "exit" -> {
+                exitCode = frame.getExitCode();
+                executionTimeMs = frame.getExecutionTimeMs();
+                timedOut = Boolean.TRUE.equals(frame.getTimedOut());
+                usage = frame.getUsage();
+            }
+            case "error" -> stderr.append(frame.getMessage().getBytes(StandardCharsets.UTF_8));
+            default -> {}
+        }
+    }
+
+    synchronized ExecutionResponse toResponse() {
+        ExecutionResponse response = new ExecutionResponse(stdout.text(), stderr.text(), exitCode, executionTimeMs,
+                stdout.omittedBytes(), stderr.omittedBytes());
+        response.setTimedOut(timedOut);
+        response.setUsage(usage);
+        return response;
+    }
+}
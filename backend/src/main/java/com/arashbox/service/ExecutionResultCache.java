@@ -0,0 +1,119 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.OutputFrame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of finished executions. Entries hold the ordered frame
+ * sequence of a run, which is enough to replay it to a WebSocket subscriber or to
+ * rebuild the REST response. Eviction is LRU, bounded by entry count and by an
+ * estimate of retained bytes, with a fixed TTL per entry.
+ */
+@Component
+public class ExecutionResultCache {
+
+    // Rough per-frame overhead: object header, fields and list slot
+    private static final int FRAME_OVERHEAD_BYTES = 64;
+
+    @Value("${arashbox.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${arashbox.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${arashbox.cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${arashbox.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(List<OutputFrame> frames, long sizeBytes, long expiresAt) {}
+
+    public boolean isEnabled() { return enabled; }
+
+    public String key(List<byte[]> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] bytes : parts) {
+                // Length-prefix every part so ("ab", "c") and ("a", "bc") differ
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public synchronized List<OutputFrame> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            sizeBytes -= entry.sizeBytes();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.frames();
+    }
+
+    public synchronized void put(String key, List<OutputFrame> frames) {
+        long size = estimateSize(frames);
+        if (size > maxBytes) return;
+
+        Entry previous = entries.put(key,
+                new Entry(List.copyOf(frames), size, System.currentTimeMillis() + ttlSeconds * 1000));
+        if (previous != null) {
+            sizeBytes -= previous.sizeBytes();
+        }
+        sizeBytes += size;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || sizeBytes > maxBytes) && it.hasNext()) {
+            sizeBytes -= it.next().getValue().sizeBytes();
+            it.remove();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public synchronized int getEntryCount() { return entries.size(); }
+    public synchronized long getSizeBytes() { return sizeBytes; }
+
+    private static long estimateSize(List<OutputFrame> frames) {
+        long size = 0;
+        for (OutputFrame frame : frames) {
+            size += FRAME_OVERHEAD_BYTES;
+            if (frame.getData() != null) size += 2L * frame.getData().length();
+            if (frame.getMessage() != null) size += 2L * frame.getMessage().length();
+        }
+        return size;
+    }
+}
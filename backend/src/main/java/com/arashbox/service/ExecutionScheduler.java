@@ -0,0 +1,198 @@
+package com.arashbox.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Single admission point for executions from both REST and WebSocket. At most
+ * {@code max-concurrent} jobs run at once; the rest wait in a bounded queue that is
+ * drained round-robin across clients, so one client's burst can't starve others.
+ * Submissions beyond the queue capacity, or from a client already at its in-flight cap
+ * ({@link InFlightLimiter}), are rejected immediately.
+ */
+@Component
+public class ExecutionScheduler {
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final ExecutorService workers;
+    private final InFlightLimiter inFlight;
+
+    private final Object lock = new Object();
+    // Per-client FIFO queues, and the round-robin order of clients with waiting jobs
+    private final Map<String, ArrayDeque<Job<?>>> queues = new HashMap<>();
+    private final ArrayDeque<String> ring = new ArrayDeque<>();
+    private int running;
+    private int queued;
+
+    public ExecutionScheduler(@Value("${arashbox.scheduler.max-concurrent:0}") int maxConcurrent,
+                              @Value("${arashbox.scheduler.queue-capacity:100}") int queueCapacity,
+                              @Value("${arashbox.execution.cpu-limit:0.5}") double cpuLimit,
+                              InFlightLimiter inFlight) {
+        // 0 means size to the host: as many sandboxes as fit on the CPUs at their quota
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent
+                : Math.max(1, (int) (Runtime.getRuntime().availableProcessors() / cpuLimit));
+        this.queueCapacity = queueCapacity;
+        // Jobs spend nearly all their time blocked on the Docker API, so each gets a
+        // virtual thread; the slot accounting below is what bounds concurrency.
+        this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("execution-", 0).factory());
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Runs the task as soon as a slot is free. While the job waits, {@code onQueued}
+     * receives its 1-based queue position whenever that position changes.
+     *
+     * @throws RejectedExecutionException if the queue is full or the client is at its in-flight cap
+     */
+    public <T> CompletableFuture<T> submit(String clientKey, Supplier<T> task, IntConsumer onQueued) {
+        InFlightLimiter.Lease lease = inFlight.tryAcquire(clientKey);
+        if (lease == null) {
+            throw new RejectedExecutionException("Too many executions in flight");
+        }
+        Job<T> job = new Job<>(task, onQueued, lease);
+        List<Runnable> notifications;
+        boolean full;
+
+        synchronized (lock) {
+            if (running < maxConcurrent && queued == 0) {
+                running++;
+                start(job);
+                return job.future;
+            }
+            full = queued >= queueCapacity;
+            if (!full) {
+                queues.computeIfAbsent(clientKey, k -> {
+                    ring.addLast(k);
+                    return new ArrayDeque<>();
+                }).addLast(job);
+                queued++;
+            }
+            notifications = full ? List.of() : positionUpdates();
+        }
+
+        // Outside the lock: in cluster mode releasing is a database round-trip
+        if (full) {
+            inFlight.release(lease);
+            throw new RejectedExecutionException("Execution queue is full");
+        }
+
+        notifications.forEach(Runnable::run);
+        return job.future;
+    }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+
+    public int getRunning() {
+        synchronized (lock) { return running; }
+    }
+
+    public int getQueued() {
+        synchronized (lock) { return queued; }
+    }
+
+    private void start(Job<?> job) {
+        workers.execute(() -> {
+            try {
+                job.run();
+            } finally {
+                inFlight.release(job.lease);
+                onFinished();
+            }
+        });
+    }
+
+    private void onFinished() {
+        List<Runnable> notifications;
+        synchronized (lock) {
+            running--;
+            while (running < maxConcurrent && queued > 0) {
+                running++;
+                start(pollNext());
+            }
+            notifications = positionUpdates();
+        }
+        notifications.forEach(Runnable::run);
+    }
+
+    private Job<?> pollNext() {
+        String clientKey = ring.pollFirst();
+        ArrayDeque<Job<?>> queue = queues.get(clientKey);
+        Job<?> job = queue.pollFirst();
+        if (queue.isEmpty()) {
+            queues.remove(clientKey);
+        } else {
+            ring.addLast(clientKey);
+        }
+        queued--;
+        return job;
+    }
+
+    // A job at index k of its client's queue runs after k+1 jobs of every client ahead
+    // of it in the ring, k of its own, and k of every client behind it.
+    private List<Runnable> positionUpdates() {
+        List<Runnable> updates = new ArrayList<>();
+        List<ArrayDeque<Job<?>>> order = new ArrayList<>(ring.size());
+        for (String clientKey : ring) {
+            order.add(queues.get(clientKey));
+        }
+
+        for (int c = 0; c < order.size(); c++) {
+            int k = 0;
+            for (Job<?> job : order.get(c)) {
+                int ahead = 0;
+                for (int other = 0; other < order.size(); other++) {
+                    int size = order.get(other).size();
+                    ahead += other < c ? Math.min(size, k + 1) : Math.min(size, k);
+                }
+                int position = ahead + 1;
+                if (position != job.lastPosition) {
+                    job.lastPosition = position;
+                    updates.add(() -> job.onQueued.accept(position));
+                }
+                k++;
+            }
+        }
+        return updates;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static class Job<T> {
+        final Supplier<T> task;
+        final IntConsumer onQueued;
+        final InFlightLimiter.Lease lease;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        int lastPosition;
+
+        Job(Supplier<T> task, IntConsumer onQueued, InFlightLimiter.Lease lease) {
+            this.task = task;
+            this.onQueued = onQueued;
+            this.lease = lease;
+        }
+
+        void run() {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
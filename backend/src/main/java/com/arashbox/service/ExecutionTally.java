@@ -0,0 +1,73 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.OutputFrame;
+import com.arashbox.model.ExecutionRecord;
+
+import java.util.function.Consumer;
+
+/**
+ * Watches a run's frames on their way to the client and sums up what the execution
+ * history keeps: output sizes, the exit code and how the run ended.
+ */
+class ExecutionTally implements Consumer<OutputFrame> {
+
+    private long stdoutBytes;
+    private long stderrBytes;
+    private Integer exitCode;
+    private boolean timedOut;
+    private boolean oomKilled;
+    private boolean failed;
+
+    @Override
+    public synchronized void accept(OutputFrame frame) {
+        switch (frame.getType()) {
+            case "stdout" -> stdoutBytes += utf8Length(frame.getData());
+            case "stderr" -> stderrBytes += utf8Length(frame.getData());
+            case "exit" -> {
+                exitCode = frame.getExitCode();
+                timedOut = Boolean.TRUE.equals(frame.getTimedOut());
+                oomKilled = frame.getUsage() != null && frame.getUsage().isOomKilled();
+            }
+            case "error" -> failed = true;
+            default -> {}
+        }
+    }
+
+    synchronized ExecutionRecord toRecord(String language, ExecutionHandle handle, long durationMs) {
+        ExecutionRecord record = new ExecutionRecord();
+        record.setLanguage(language);
+        record.setOutcome(outcome(handle));
+        record.setExitCode(exitCode);
+        record.setDurationMs(durationMs);
+        record.setStdoutBytes(stdoutBytes);
+        record.setStderrBytes(stderrBytes);
+        return record;
+    }
+
+    private String outcome(ExecutionHandle handle) {
+        if (handle.isCancelled()) return handle.isExpired() ? "timeout" : "cancelled";
+        if (timedOut) return "timeout";
+        if (oomKilled) return "oom_killed";
+        if (failed || exitCode == null) return "failed";
+        return "exited";
+    }
+
+    // Counts without encoding: output frames can be large and this runs for every one
+    static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,52 @@
+package com.arashbox.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central hard deadline for running executions. Each run's own waits have timeouts, but
+ * a thread stuck in a Docker call can outlive them; when a run is overdue the watchdog
+ * expires its {@link ExecutionHandle}, which kills the container and wakes the thread.
+ */
+@Component
+public class ExecutionWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionWatchdog.class);
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "execution-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong expired = new AtomicLong();
+
+    public ExecutionWatchdog() {
+        // Nearly every run finishes in time, so disarmed deadlines must not pile up
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /** Expires the run after {@code timeoutMillis}; cancel the returned future once it is done. */
+    public ScheduledFuture<?> watch(ExecutionHandle handle, long timeoutMillis) {
+        return timer.schedule(() -> {
+            if (handle.expire()) {
+                expired.incrementAndGet();
+                log.warn("Execution exceeded its {}ms deadline, killed by watchdog", timeoutMillis);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getExpired() { return expired.get(); }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,169 @@
+package com.arashbox.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many executions one client can have queued or running at once
+ * ({@code max-in-flight-per-client}, 0 for no cap). On a single node the count is a map
+ * entry. In cluster mode each execution holds a lease on one of the client's numbered
+ * slots in {@code execution_leases}, so the cap holds across nodes: taking a slot is one
+ * insert that the primary key makes atomic, and a client with nothing in flight gets slot
+ * 0 on the first try. The node renews the leases it holds every third of
+ * {@code lease-seconds}; when a node dies its leases expire and the slots are taken over.
+ */
+@Component
+public class InFlightLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(InFlightLimiter.class);
+
+    private static final String INSERT = """
+            insert into execution_leases (lease_key, client_key, node_id, expires_at) values (?, ?, ?, ?)""";
+    private static final String DELETE = "delete from execution_leases where lease_key = ? and node_id = ?";
+    private static final String DELETE_EXPIRED = "delete from execution_leases where client_key = ? and expires_at < ?";
+    private static final String RENEW = "update execution_leases set expires_at = ? where lease_key = ? and node_id = ?";
+    private static final String DELETE_NODE = "delete from execution_leases where node_id = ?";
+
+    /** Held when the client isn't capped; releasing it does nothing. */
+    private static final Lease UNLIMITED = new Lease(null, null);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPerClient;
+    private final boolean shared;
+    private final long leaseMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, Integer> localCounts = new ConcurrentHashMap<>();
+    private final Set<String> heldLeases = ConcurrentHashMap.newKeySet();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "lease-renew");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public InFlightLimiter(JdbcTemplate jdbcTemplate,
+                           @Value("${arashbox.scheduler.max-in-flight-per-client:0}") int maxPerClient,
+                           @Value("${arashbox.cluster.enabled:false}") boolean shared,
+                           @Value("${arashbox.cluster.lease-seconds:30}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPerClient = maxPerClient;
+        this.shared = shared;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        if (shared && maxPerClient > 0) {
+            long interval = Math.max(1_000, leaseMillis / 3);
+            renewer.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Takes an in-flight slot for the client, or returns null if it's at its cap. */
+    public Lease tryAcquire(String clientKey) {
+        if (maxPerClient <= 0) return UNLIMITED;
+        if (shared) {
+            try {
+                return tryAcquireShared(clientKey);
+            } catch (DataAccessException e) {
+                // Better to cap per node than to refuse every run while the database is away
+                fallbacks.incrementAndGet();
+                log.warn("Shared in-flight limits unavailable, applying the per-node cap: {}", e.getMessage());
+            }
+        }
+        return tryAcquireLocal(clientKey);
+    }
+
+    public void release(Lease lease) {
+        if (lease == UNLIMITED) return;
+        if (lease.leaseKey() == null) {
+            localCounts.computeIfPresent(lease.clientKey(), (k, count) -> count > 1 ? count - 1 : null);
+            return;
+        }
+        heldLeases.remove(lease.leaseKey());
+        try {
+            jdbcTemplate.update(DELETE, lease.leaseKey(), nodeId);
+        } catch (DataAccessException e) {
+            // No longer renewed, so the slot frees itself when the lease expires
+            log.warn("Failed to release execution lease {}: {}", lease.leaseKey(), e.getMessage());
+        }
+    }
+
+    public int getMaxPerClient() { return maxPerClient; }
+    /** Slots decided by the per-node count because the database was unreachable. */
+    public long getFallbacks() { return fallbacks.get(); }
+    public int getHeldLeases() { return heldLeases.size(); }
+
+    private Lease tryAcquireLocal(String clientKey) {
+        boolean[] acquired = new boolean[1];
+        localCounts.compute(clientKey, (k, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxPerClient) return count;
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0] ? new Lease(clientKey, null) : null;
+    }
+
+    // Tries each slot in turn; if all are taken, clears the client's expired leases
+    // (left by a node that died) and tries once more
+    private Lease tryAcquireShared(String clientKey) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long now = System.currentTimeMillis();
+            for (int slot = 0; slot < maxPerClient; slot++) {
+                String leaseKey = clientKey + "#" + slot;
+                try {
+                    jdbcTemplate.update(INSERT, leaseKey, clientKey, nodeId, now + leaseMillis);
+                    heldLeases.add(leaseKey);
+                    return new Lease(clientKey, leaseKey);
+                } catch (DuplicateKeyException e) {
+                    // Slot taken, possibly by an expired lease
+                }
+            }
+            if (jdbcTemplate.update(DELETE_EXPIRED, clientKey, now) == 0) break;
+        }
+        return null;
+    }
+
+    private void renew() {
+        List<String> leases = new ArrayList<>(heldLeases);
+        if (leases.isEmpty()) return;
+        long expiresAt = System.currentTimeMillis() + leaseMillis;
+        try {
+            jdbcTemplate.batchUpdate(RENEW, leases, leases.size(), (ps, leaseKey) -> {
+                ps.setLong(1, expiresAt);
+                ps.setString(2, leaseKey);
+                ps.setString(3, nodeId);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to renew {} execution leases: {}", leases.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+        if (shared && !heldLeases.isEmpty()) {
+            try {
+                jdbcTemplate.update(DELETE_NODE, nodeId);
+            } catch (DataAccessException e) {
+                log.warn("Failed to release this node's execution leases: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** An in-flight slot; {@code leaseKey} is null for slots counted on this node only. */
+    public record Lease(String clientKey, String leaseKey) {}
+}
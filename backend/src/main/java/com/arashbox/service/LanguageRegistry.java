@@ -0,0 +1,45 @@
+package com.arashbox.service;
+
+import com.arashbox.config.LanguageProperties;
+import com.arashbox.config.LanguageRuntime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The configured language runtimes, validated at startup with the execution defaults
+ * filled in for any limit a language doesn't set.
+ */
+@Component
+public class LanguageRegistry {
+
+    private final Map<String, LanguageRuntime> runtimes;
+
+    public LanguageRegistry(LanguageProperties properties,
+                            @Value("${arashbox.execution.memory-limit-mb:128}") int memoryLimitMb,
+                            @Value("${arashbox.execution.cpu-limit:0.5}") double cpuLimit,
+                            @Value("${arashbox.execution.timeout-seconds:10}") int timeoutSeconds) {
+        Map<String, LanguageRuntime> runtimes = new LinkedHashMap<>();
+        properties.getLanguages().forEach((name, runtime) -> {
+            if (runtime.getImage() == null || runtime.getExtension() == null || runtime.getRun().isEmpty()) {
+                throw new IllegalStateException("Language " + name + " needs image, extension and run");
+            }
+            if (runtime.getMemoryLimitMb() == null) runtime.setMemoryLimitMb(memoryLimitMb);
+            if (runtime.getCpuLimit() == null) runtime.setCpuLimit(cpuLimit);
+            if (runtime.getPidsLimit() == null) runtime.setPidsLimit(16L);
+            if (runtime.getTimeoutSeconds() == null) runtime.setTimeoutSeconds(timeoutSeconds);
+            runtimes.put(name.toLowerCase(), runtime);
+        });
+        this.runtimes = Collections.unmodifiableMap(runtimes);
+    }
+
+    /** The runtime for a language, or null if it isn't supported. */
+    public LanguageRuntime get(String language) {
+        return runtimes.get(language);
+    }
+
+    public Map<String, LanguageRuntime> getRuntimes() { return runtimes; }
+}
@@ -0,0 +1,86 @@
+package com.arashbox.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size capture of one output stream: the first {@code headBytes} are kept as they
+ * arrive and the last {@code tailBytes} in a ring buffer, with a count of what fell in
+ * between. Memory is allocated once, however much the program prints, and the end of
+ * the output (where the error usually is) is never lost.
+ */
+class OutputCapture {
+
+    private final byte[] head;
+    private final byte[] tail;
+    private int headLength;
+    // Bytes that went past the head; the ring holds the last tail.length of them
+    private long tailWritten;
+
+    OutputCapture(int headBytes, int tailBytes) {
+        this.head = new byte[headBytes];
+        this.tail = new byte[tailBytes];
+    }
+
+    void append(byte[] bytes) {
+        int offset = Math.min(head.length - headLength, bytes.length);
+        System.arraycopy(bytes, 0, head, headLength, offset);
+        headLength += offset;
+
+        int remaining = bytes.length - offset;
+        if (remaining == 0) return;
+        if (remaining > tail.length) {
+            // Only the end of a large write can survive in the ring
+            tailWritten += remaining - tail.length;
+            offset += remaining - tail.length;
+            remaining = tail.length;
+            if (remaining == 0) return;
+        }
+        int position = (int) (tailWritten % tail.length);
+        int first = Math.min(remaining, tail.length - position);
+        System.arraycopy(bytes, offset, tail, position, first);
+        System.arraycopy(bytes, offset + first, tail, 0, remaining - first);
+        tailWritten += remaining;
+    }
+
+    long omittedBytes() {
+        return Math.max(0, tailWritten - tail.length);
+    }
+
+    /** The captured text, with a marker where bytes were omitted. */
+    String text() {
+        int tailLength = (int) Math.min(tailWritten, tail.length);
+        byte[] ordered = new byte[tailLength];
+        int start = (int) ((tailWritten - tailLength) % Math.max(1, tail.length));
+        int first = Math.min(tailLength, tail.length - start);
+        System.arraycopy(tail, start, ordered, 0, first);
+        System.arraycopy(tail, 0, ordered, first, tailLength - first);
+
+        long omitted = omittedBytes();
+        if (omitted == 0) {
+            byte[] all = new byte[headLength + tailLength];
+            System.arraycopy(head, 0, all, 0, headLength);
+            System.arraycopy(ordered, 0, all, headLength, tailLength);
+            return new String(all, StandardCharsets.UTF_8);
+        }
+
+        // The cut points can split a character; drop the partial bytes on either side
+        int tailStart = 0;
+        while (tailStart < tailLength && tailStart < 3 && (ordered[tailStart] & 0xC0) == 0x80) {
+            tailStart++;
+        }
+        return new String(head, 0, completeLength(head, headLength), StandardCharsets.UTF_8)
+                + "\n... [" + omitted + " bytes omitted] ...\n"
+                + new String(ordered, tailStart, tailLength - tailStart, StandardCharsets.UTF_8);
+    }
+
+    // Length of bytes[0, length) without an incomplete UTF-8 sequence at the end
+    private static int completeLength(byte[] bytes, int length) {
+        for (int i = length - 1; i >= Math.max(0, length - 4); i--) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) continue;
+            int sequence = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+            return i + sequence <= length ? length : i;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,130 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.OutputFrame;
+import com.github.dockerjava.api.model.StreamType;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Turns raw docker log frames into a small number of OutputFrames. Bytes are decoded
+ * incrementally per stream, so a multi-byte character split across docker frames
+ * comes out whole, and consecutive text of the same stream is merged until it
+ * reaches {@code flushBytes} or {@link #flush()} is called by the periodic timer.
+ * A change of stream always flushes first, which keeps stdout/stderr order intact.
+ * The output limit counts raw bytes, not chars.
+ */
+class OutputCoalescer {
+
+    private final long maxBytes;
+    private final int flushBytes;
+    private final Consumer<OutputFrame> frameConsumer;
+
+    private final StreamDecoder stdout = new StreamDecoder();
+    private final StreamDecoder stderr = new StreamDecoder();
+
+    private final StringBuilder pending = new StringBuilder();
+    private StreamType pendingType;
+    private int pendingBytes;
+    private long totalBytes;
+    private boolean truncated;
+    private boolean finished;
+
+    OutputCoalescer(long maxBytes, int flushBytes, Consumer<OutputFrame> frameConsumer) {
+        this.maxBytes = maxBytes;
+        this.flushBytes = flushBytes;
+        this.frameConsumer = frameConsumer;
+    }
+
+    synchronized void accept(StreamType type, byte[] payload) {
+        if (finished || truncated || (type != StreamType.STDOUT && type != StreamType.STDERR)) return;
+
+        int length = (int) Math.min(payload.length, maxBytes - totalBytes);
+        if (length < payload.length) {
+            truncated = true;
+        }
+        totalBytes += length;
+
+        if (pendingType != null && pendingType != type) {
+            flush();
+        }
+        pendingType = type;
+        pendingBytes += length;
+        decoderFor(type).decode(payload, length, pending, false);
+
+        if (pendingBytes >= flushBytes) {
+            flush();
+        }
+    }
+
+    synchronized void flush() {
+        if (pending.isEmpty()) return;
+        String data = pending.toString();
+        frameConsumer.accept(pendingType == StreamType.STDERR ? OutputFrame.stderr(data) : OutputFrame.stdout(data));
+        pending.setLength(0);
+        pendingBytes = 0;
+    }
+
+    /** Flushes everything, including dangling partial characters unless output was truncated. */
+    synchronized void finish() {
+        if (finished) return;
+        finished = true;
+        if (!truncated) {
+            finishStream(StreamType.STDOUT);
+            finishStream(StreamType.STDERR);
+        }
+        flush();
+    }
+
+    synchronized boolean isTruncated() { return truncated; }
+
+    private void finishStream(StreamType type) {
+        StringBuilder tail = new StringBuilder();
+        decoderFor(type).decode(new byte[0], 0, tail, true);
+        if (tail.isEmpty()) return;
+        if (pendingType != null && pendingType != type) {
+            flush();
+        }
+        pendingType = type;
+        pending.append(tail);
+    }
+
+    private StreamDecoder decoderFor(StreamType type) {
+        return type == StreamType.STDERR ? stderr : stdout;
+    }
+
+    private static class StreamDecoder {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Incomplete UTF-8 sequence carried over from the previous frame (at most 3 bytes)
+        private final byte[] carry = new byte[4];
+        private int carryLength;
+
+        void decode(byte[] bytes, int length, StringBuilder out, boolean endOfInput) {
+            ByteBuffer in;
+            if (carryLength > 0) {
+                in = ByteBuffer.allocate(carryLength + length);
+                in.put(carry, 0, carryLength).put(bytes, 0, length).flip();
+            } else {
+                in = ByteBuffer.wrap(bytes, 0, length);
+            }
+
+            CharBuffer chars = CharBuffer.allocate(in.remaining() + 1);
+            decoder.decode(in, chars, endOfInput);
+            if (endOfInput) {
+                decoder.flush(chars);
+                decoder.reset();
+            }
+            chars.flip();
+            out.append(chars);
+
+            carryLength = in.remaining();
+            in.get(carry, 0, carryLength);
+        }
+    }
+}
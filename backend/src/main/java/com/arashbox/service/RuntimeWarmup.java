@@ -0,0 +1,158 @@
+package com.arashbox.service;
+
+import com.arashbox.config.LanguageRuntime;
+import com.arashbox.dto.ExecutionRequest;
+import com.arashbox.dto.ExecutionResponse;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets every language runtime to steady state before the app takes traffic: pulls the
+ * images onto every Docker host in parallel, then runs each language's warm-up code
+ * once, which also fills the page cache and, for compiled languages, the build cache.
+ * Runs as the last ApplicationReadyEvent listener, once the reaper and the container pool
+ * have started, so the warm-up runs go through the pool like any other run. Boot only
+ * reports readiness (accepting traffic) after the ready listeners return, so that still
+ * waits for the warm-up. Failures are logged, not fatal; the pool keeps retrying missing
+ * images.
+ */
+@Component
+public class RuntimeWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(RuntimeWarmup.class);
+
+    private final LanguageRegistry languages;
+    private final DockerHostRegistry hosts;
+    private final CodeExecutionService executionService;
+
+    @Value("${arashbox.warmup.enabled:true}")
+    private boolean enabled;
+
+    // missing: pull images a host doesn't have; always: pull every image; never: only report missing ones
+    @Value("${arashbox.warmup.pull-policy:missing}")
+    private String pullPolicy;
+
+    @Value("${arashbox.warmup.pull-timeout-seconds:600}")
+    private long pullTimeoutSeconds;
+
+    public RuntimeWarmup(LanguageRegistry languages, DockerHostRegistry hosts, CodeExecutionService executionService) {
+        this.languages = languages;
+        this.hosts = hosts;
+        this.executionService = executionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void run() {
+        if (!enabled) return;
+
+        long start = System.currentTimeMillis();
+        pullImages();
+        warmUp();
+        log.info("Language runtimes warmed up in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private void pullImages() {
+        Set<String> images = new LinkedHashSet<>();
+        languages.getRuntimes().values().forEach(runtime -> images.add(runtime.getImage()));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> pulls = new ArrayList<>();
+            for (DockerHost host : hosts.byLoad()) {
+                for (String image : images) {
+                    pulls.add(executor.submit(() -> pull(host, image)));
+                }
+            }
+            awaitAll(pulls);
+        }
+    }
+
+    private void pull(DockerHost host, String image) {
+        try {
+            if (!"always".equals(pullPolicy)) {
+                try {
+                    host.getClient().inspectImageCmd(image).exec();
+                    return;
+                } catch (NotFoundException e) {
+                    if ("never".equals(pullPolicy)) {
+                        log.warn("Image {} is missing on {} and pull-policy is never", image, host);
+                        return;
+                    }
+                }
+            }
+
+            long start = System.currentTimeMillis();
+            boolean done = host.getClient().pullImageCmd(image)
+                    .exec(new PullImageResultCallback())
+                    .awaitCompletion(pullTimeoutSeconds, TimeUnit.SECONDS);
+            if (done) {
+                log.info("Pulled {} on {} in {} ms", image, host, System.currentTimeMillis() - start);
+            } else {
+                log.warn("Pulling {} on {} did not finish within {}s", image, host, pullTimeoutSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to pull {} on {}", image, host, e);
+        }
+    }
+
+    private void warmUp() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>();
+            languages.getRuntimes().forEach((language, runtime) -> {
+                if (runtime.getWarmupCode() != null) {
+                    runs.add(executor.submit(() -> warmUp(language, runtime)));
+                }
+            });
+            awaitAll(runs);
+        }
+    }
+
+    private void warmUp(String language, LanguageRuntime runtime) {
+        ExecutionRequest request = new ExecutionRequest();
+        request.setLanguage(language);
+        request.setCode(runtime.getWarmupCode());
+        request.setNoCache(true);
+
+        long start = System.currentTimeMillis();
+        ExecutionResponse response = executionService.execute(request);
+        long elapsed = System.currentTimeMillis() - start;
+        if (response.getExitCode() == 0) {
+            log.info("Warmed up {} in {} ms", language, elapsed);
+        } else {
+            log.warn("Warm-up run for {} exited with {} after {} ms: {}", language, response.getExitCode(),
+                    elapsed, response.getStderr());
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Each task logs its own failure
+            }
+        }
+    }
+}
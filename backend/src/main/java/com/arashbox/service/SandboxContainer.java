@@ -0,0 +1,8 @@
+package com.arashbox.service;
+
+/**
+ * A started sandbox container on one of the Docker hosts. Containers are single-use, so
+ * the execution id labelled on it at creation identifies the one execution that will
+ * run in it.
+ */
+public record SandboxContainer(DockerHost host, String id, String executionId, long deadlineMillis) {}
@@ -0,0 +1,74 @@
+package com.arashbox.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Makes share ids unique on databases created before uk_snippets_share_id existed.
+ * ddl-auto=update can't add the constraint while duplicates exist and only logs the
+ * failure, and a duplicated share link can't be resolved anyway. At startup the oldest
+ * snippet keeps each duplicated share id, the others get fresh ones, and the constraint
+ * is added.
+ */
+@Component
+public class ShareIdDeduplication {
+
+    private static final Logger log = LoggerFactory.getLogger(ShareIdDeduplication.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ShareIdDeduplication(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        try {
+            Integer reassigned = transactionTemplate.execute(status -> reassignDuplicates());
+            if (reassigned == null || reassigned == 0) return;
+
+            jdbcTemplate.execute("alter table snippets add constraint uk_snippets_share_id unique (share_id)");
+            log.info("Gave {} snippets with a duplicated share id a new one and added uk_snippets_share_id",
+                    reassigned);
+        } catch (DataAccessException e) {
+            log.warn("Could not make snippet share ids unique", e);
+        }
+    }
+
+    private int reassignDuplicates() {
+        List<String> duplicated = jdbcTemplate.queryForList(
+                "select share_id from snippets where share_id is not null group by share_id having count(*) > 1",
+                String.class);
+        int reassigned = 0;
+        for (String shareId : duplicated) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from snippets where share_id = ? order by id", Long.class, shareId);
+            for (Long id : ids.subList(1, ids.size())) {
+                String fresh = unusedShareId();
+                jdbcTemplate.update("update snippets set share_id = ? where id = ?", fresh, id);
+                log.info("Snippet {} shared as {} is now shared as {}", id, shareId, fresh);
+                reassigned++;
+            }
+        }
+        return reassigned;
+    }
+
+    private String unusedShareId() {
+        while (true) {
+            String shareId = SnippetService.newShareId();
+            Integer taken = jdbcTemplate.queryForObject(
+                    "select count(*) from snippets where share_id = ?", Integer.class, shareId);
+            if (taken == null || taken == 0) return shareId;
+        }
+    }
+}
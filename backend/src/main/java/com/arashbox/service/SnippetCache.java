@@ -0,0 +1,127 @@
+package com.arashbox.service;
+
+import com.arashbox.model.Snippet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for snippet lookups by id and by share id. Eviction is LRU,
+ * bounded by entry count, with a fixed TTL per entry; misses (unknown ids) are cached
+ * too. Concurrent misses for the same key share one load, and every write invalidates
+ * the snippet's keys. Callers always get their own copy, so they can't modify a cached
+ * snippet. Entries hold the snippet's compressed blob rather than its decoded code; a
+ * copy decodes it on first use.
+ */
+@Component
+public class SnippetCache {
+
+    @Value("${arashbox.snippet-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${arashbox.snippet-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${arashbox.snippet-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Optional<Snippet>>> loading = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that raced with a write doesn't store its result
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private record Entry(Snippet snippet, long expiresAt) {}
+
+    public static String idKey(Long id) {
+        return "id:" + id;
+    }
+
+    public static String shareKey(String shareId) {
+        return "share:" + shareId;
+    }
+
+    public Optional<Snippet> get(String key, Supplier<Optional<Snippet>> loader) {
+        if (!enabled) return loader.get();
+
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return copyOf(entry.snippet());
+        }
+
+        CompletableFuture<Optional<Snippet>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Snippet>> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalesced.incrementAndGet();
+            try {
+                return inFlight.join().flatMap(SnippetCache::copyOf);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadVersion = version.get();
+        try {
+            Optional<Snippet> loaded = loader.get();
+            Snippet stored = loaded.map(Snippet::new).orElse(null);
+            store(key, stored, loadVersion);
+            load.complete(Optional.ofNullable(stored));
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    public synchronized void invalidate(Snippet snippet) {
+        version.incrementAndGet();
+        if (snippet.getId() != null) entries.remove(idKey(snippet.getId()));
+        if (snippet.getShareId() != null) entries.remove(shareKey(snippet.getShareId()));
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getCoalesced() { return coalesced.get(); }
+
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void store(String key, Snippet snippet, long loadVersion) {
+        if (version.get() != loadVersion) return;
+
+        entries.put(key, new Entry(snippet, System.currentTimeMillis() + ttlSeconds * 1000));
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static Optional<Snippet> copyOf(Snippet snippet) {
+        return Optional.ofNullable(snippet).map(Snippet::new);
+    }
+}
@@ -1,7 +1,10 @@
 package com.arashbox.service;
 
+import com.arashbox.dto.SnippetPage;
+import com.arashbox.dto.SnippetSummary;
 import com.arashbox.model.Snippet;
 import com.arashbox.repository.SnippetRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,32 +14,77 @@ import java.util.UUID;
 @Service
 public class SnippetService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final SnippetRepository snippetRepository;
+    private final SnippetCache snippetCache;
+    private final CodeBlobStore codeBlobStore;
 
-    public SnippetService(SnippetRepository snippetRepository) {
+    public SnippetService(SnippetRepository snippetRepository, SnippetCache snippetCache,
+                          CodeBlobStore codeBlobStore) {
         this.snippetRepository = snippetRepository;
+        this.snippetCache = snippetCache;
+        this.codeBlobStore = codeBlobStore;
     }
 
     public Snippet save(Snippet snippet) {
         if (snippet.getShareId() == null) {
-            snippet.setShareId(UUID.randomUUID().toString().substring(0, 8));
+            snippet.setShareId(newShareId());
+        }
+        String code = snippet.getCode();
+        if (code != null) {
+            snippet.setCodeHash(codeBlobStore.store(code));
+            snippet.setLegacyCode(null);
         }
-        return snippetRepository.save(snippet);
+        Snippet saved = snippetRepository.save(snippet);
+        // A merged copy comes back without the transient code, and may still point at the old blob
+        if (code != null) saved.setCode(code);
+        snippetCache.invalidate(saved);
+        return saved;
     }
 
-    public List<Snippet> findByUserId(String userId) {
-        return snippetRepository.findByUserIdOrderByUpdatedAtDesc(userId);
+    /**
+     * One page of the user's snippets, most recently updated first. The cursor is the
+     * (updatedAt, id) of the last item of the previous page, so each page is an index
+     * range scan no matter how deep into the listing it is.
+     */
+    public SnippetPage findByUserId(String userId, String cursor, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page without a count query
+        Limit limit = Limit.of(size + 1);
+
+        List<SnippetSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = snippetRepository.findSummaries(userId, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = snippetRepository.findSummariesAfter(userId, after.at(), after.id(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new SnippetPage(rows, null);
+        }
+        List<SnippetSummary> items = rows.subList(0, size);
+        SnippetSummary last = items.get(size - 1);
+        return new SnippetPage(List.copyOf(items), new PageCursor(last.getUpdatedAt(), last.getId()).encode());
     }
 
     public Optional<Snippet> findById(Long id) {
-        return snippetRepository.findById(id);
+        return snippetCache.get(SnippetCache.idKey(id), () -> snippetRepository.findWithCodeBlobById(id));
     }
 
     public Optional<Snippet> findByShareId(String shareId) {
-        return snippetRepository.findByShareId(shareId);
+        return snippetCache.get(SnippetCache.shareKey(shareId), () -> snippetRepository.findByShareId(shareId));
     }
 
     public void delete(Long id) {
-        snippetRepository.deleteById(id);
+        snippetRepository.findById(id).ifPresent(snippet -> {
+            snippetRepository.delete(snippet);
+            snippetCache.invalidate(snippet);
+        });
+    }
+
+    static String newShareId() {
+        return UUID.randomUUID().toString().substring(0, 8);
     }
 }
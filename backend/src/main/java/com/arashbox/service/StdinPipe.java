@@ -0,0 +1,176 @@
+package com.arashbox.service;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded byte pipe between a client sending stdin chunks and the docker-java thread
+ * copying them into the running process. Writers wait while the pipe is full, which is
+ * the backpressure towards the client; the reader sees end-of-stream after
+ * {@link #closeInput()}. The exec stream can't pass that end-of-stream on to the process
+ * (it never half-closes stdin), so the container reads the {@link #framed()} view instead.
+ */
+public class StdinPipe extends InputStream {
+
+    private static final int FRAME_BYTES = 8192;
+
+    private final int capacityBytes;
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private byte[] current;
+    private int offset;
+    private int bufferedBytes;
+    private boolean eof;
+    private boolean closed;
+
+    public StdinPipe(int capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+
+    /** A pipe that already holds all of {@code text} and is at EOF. */
+    public static StdinPipe of(String text) {
+        StdinPipe pipe = open(0, text);
+        pipe.eof = true;
+        return pipe;
+    }
+
+    /** An open pipe pre-filled with {@code text}, which may exceed the capacity. */
+    public static StdinPipe open(int capacityBytes, String text) {
+        StdinPipe pipe = new StdinPipe(capacityBytes);
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0) {
+            pipe.chunks.add(bytes);
+            pipe.bufferedBytes = bytes.length;
+        }
+        return pipe;
+    }
+
+    /**
+     * Queues a chunk, waiting up to {@code timeoutMs} for room.
+     *
+     * @return false if the pipe stayed full, or input was already closed
+     */
+    public boolean write(byte[] data, long timeoutMs) throws InterruptedException {
+        if (data.length == 0) return true;
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            // An oversized chunk is still accepted once the pipe has drained
+            while (!eof && !closed && bufferedBytes > 0 && bufferedBytes + data.length > capacityBytes) {
+                if (remainingNanos <= 0) return false;
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            if (eof || closed) return false;
+            chunks.addLast(data);
+            bufferedBytes += data.length;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Signals EOF to the process once the buffered bytes are consumed. */
+    public void closeInput() {
+        lock.lock();
+        try {
+            eof = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int read() {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) return 0;
+        lock.lock();
+        try {
+            while (current == null && chunks.isEmpty()) {
+                if (eof || closed) return -1;
+                changed.awaitUninterruptibly();
+            }
+            if (current == null) {
+                current = chunks.pollFirst();
+                offset = 0;
+            }
+            int n = Math.min(len, current.length - offset);
+            System.arraycopy(current, offset, b, off, n);
+            offset += n;
+            bufferedBytes -= n;
+            if (offset == current.length) {
+                current = null;
+            }
+            changed.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The pipe's bytes as length-prefixed frames: each chunk is its length in decimal and a
+     * newline, then the chunk, and end-of-stream is a frame of length 0. A shell loop in the
+     * container unwraps the frames and closes the process's stdin at the empty one.
+     */
+    public InputStream framed() {
+        return new InputStream() {
+            private final byte[] chunk = new byte[FRAME_BYTES];
+            private byte[] frame = new byte[0];
+            private int position;
+            private boolean ended;
+
+            @Override
+            public int read() {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) return 0;
+                if (position == frame.length) {
+                    if (ended) return -1;
+                    int n = StdinPipe.this.read(chunk, 0, chunk.length);
+                    ended = n == -1;
+                    byte[] header = ((ended ? 0 : n) + "\n").getBytes(StandardCharsets.US_ASCII);
+                    frame = Arrays.copyOf(header, header.length + Math.max(n, 0));
+                    if (n > 0) System.arraycopy(chunk, 0, frame, header.length, n);
+                    position = 0;
+                }
+                int n = Math.min(len, frame.length - position);
+                System.arraycopy(frame, position, b, off, n);
+                position += n;
+                return n;
+            }
+        };
+    }
+
+    /** Ends the pipe for both sides; pending bytes are dropped. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            chunks.clear();
+            current = null;
+            bufferedBytes = 0;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.arashbox.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal ustar writer. The archive is produced as a stream that concatenates the
+ * 512-byte headers with the callers' content arrays as-is, so file bodies are never
+ * copied into an intermediate buffer. The archive is padded out to a whole 10240-byte
+ * record: tar reads record by record, and the exec stream never half-closes stdin, so a
+ * short last record would leave {@code tar -x} waiting for bytes that never come.
+ */
+final class TarArchive {
+
+    private static final int BLOCK = 512;
+    private static final int RECORD = 20 * BLOCK;
+    private static final byte[] EMPTY_BLOCK = new byte[BLOCK];
+    static final int MAX_PATH_LENGTH = 100;
+
+    private TarArchive() {}
+
+    static InputStream of(Map<String, byte[]> files) {
+        List<InputStream> parts = new ArrayList<>(files.size() * 3 + 1);
+        long length = 0;
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            byte[] content = file.getValue();
+            parts.add(new ByteArrayInputStream(header(file.getKey(), content.length)));
+            parts.add(new ByteArrayInputStream(content));
+            int padding = (BLOCK - content.length % BLOCK) % BLOCK;
+            if (padding > 0) {
+                parts.add(new ByteArrayInputStream(EMPTY_BLOCK, 0, padding));
+            }
+            length += BLOCK + content.length + padding;
+        }
+        // End of archive: two zero blocks, then zeros up to the end of the record
+        length += 2 * BLOCK;
+        int recordPadding = (int) ((RECORD - length % RECORD) % RECORD);
+        parts.add(new ByteArrayInputStream(new byte[2 * BLOCK + recordPadding]));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private static byte[] header(String path, long size) {
+        byte[] name = path.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_PATH_LENGTH) {
+            throw new IllegalArgumentException("Path too long: " + path);
+        }
+
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(name, 0, header, 0, name.length);
+        octal(header, 100, 8, 0644);                                // mode
+        octal(header, 108, 8, 0);                                   // uid
+        octal(header, 116, 8, 0);                                   // gid
+        octal(header, 124, 12, size);                               // size
+        octal(header, 136, 12, System.currentTimeMillis() / 1000);  // mtime
+        header[156] = '0';                                          // regular file
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+        header[263] = '0';
+        header[264] = '0';
+
+        // Checksum is computed with its own field read as spaces
+        for (int i = 148; i < 156; i++) header[i] = ' ';
+        long checksum = 0;
+        for (byte b : header) checksum += b & 0xff;
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    // Zero-padded octal digits followed by a NUL terminator
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        int pad = length - 1 - digits.length();
+        for (int i = 0; i < pad; i++) header[offset + i] = '0';
+        System.arraycopy(digits.getBytes(StandardCharsets.US_ASCII), 0, header, offset + pad, digits.length());
+        header[offset + length - 1] = 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.arashbox;
+
+import com.arashbox.config.RateLimiter;
+import com.arashbox.service.InFlightLimiter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two application contexts sharing one database stand in for two replicas: the limits
+ * must add up across them rather than apply to each.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClusterLimitsTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(ArashboxApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--arashbox.cluster.enabled=true",
+                        "--arashbox.rate-limit.rules.execute.capacity=4",
+                        "--arashbox.rate-limit.rules.execute.refill-per-minute=4",
+                        "--arashbox.scheduler.max-in-flight-per-client=2");
+    }
+
+    @Test
+    void rateLimitIsSharedAcrossNodes() {
+        RateLimiter.Limit limitA = nodeA.getBean(RateLimiter.class).forPath("/api/execute");
+        RateLimiter.Limit limitB = nodeB.getBean(RateLimiter.class).forPath("/api/execute");
+
+        int admitted = 0;
+        for (int i = 0; i < 8; i++) {
+            RateLimiter.Limit limit = i % 2 == 0 ? limitA : limitB;
+            if (limit.tryAcquire("10.0.0.1", false)) admitted++;
+        }
+
+        assertEquals(4, admitted);
+    }
+
+    @Test
+    void inFlightCapIsSharedAcrossNodes() {
+        InFlightLimiter limiterA = nodeA.getBean(InFlightLimiter.class);
+        InFlightLimiter limiterB = nodeB.getBean(InFlightLimiter.class);
+
+        InFlightLimiter.Lease first = limiterA.tryAcquire("ip:10.0.0.2");
+        assertNotNull(first);
+        assertNotNull(limiterB.tryAcquire("ip:10.0.0.2"));
+        assertNull(limiterA.tryAcquire("ip:10.0.0.2"));
+        assertNull(limiterB.tryAcquire("ip:10.0.0.2"));
+
+        limiterA.release(first);
+        assertNotNull(limiterB.tryAcquire("ip:10.0.0.2"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.arashbox;
+
+import com.arashbox.dto.BatchExecutionRequest;
+import com.arashbox.dto.BatchExecutionResponse;
+import com.arashbox.dto.ExecutionRequest;
+import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.dto.OutputFrame;
+import com.arashbox.dto.TestCase;
+import com.arashbox.service.CodeExecutionService;
+import com.arashbox.service.DockerHostRegistry;
+import com.arashbox.service.ExecutionHandle;
+import com.arashbox.service.StdinPipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs programs that read stdin to EOF against a real Docker daemon: the exec stream
+ * never half-closes stdin, so these hang until the timeout if EOF isn't delivered some
+ * other way. Skipped when there is no local daemon.
+ */
+@EnabledIf("dockerAvailable")
+@SpringBootTest(properties = {
+        "arashbox.cache.enabled=false",
+        "arashbox.docker.hosts[0].name=local",
+        "arashbox.docker.hosts[0].url=unix:///var/run/docker.sock"
+})
+@ActiveProfiles("test")
+class DockerExecutionTest {
+
+    private static final String IMAGE = "python:3.12-slim";
+    private static final String COUNT_STDIN = "import sys\nprint(len(sys.stdin.read()))\n";
+
+    @Autowired
+    private CodeExecutionService executionService;
+
+    @Autowired
+    private DockerHostRegistry hosts;
+
+    static boolean dockerAvailable() {
+        return Files.exists(Path.of("/var/run/docker.sock"));
+    }
+
+    @BeforeEach
+    void pullImage() throws InterruptedException {
+        hosts.getHosts().get(0).getClient().pullImageCmd(IMAGE).start().awaitCompletion(5, TimeUnit.MINUTES);
+    }
+
+    @Test
+    void oneShotStdinEndsWithEof() {
+        ExecutionResponse response = executionService.execute(request("héllo\nworld\n"), new ExecutionHandle());
+
+        assertEquals(0, response.getExitCode(), response.getStderr());
+        assertEquals("12", response.getStdout().trim());
+        assertTrue(response.getExecutionTimeMs() < 5_000, "run waited for stdin");
+    }
+
+    @Test
+    void eachTestCaseReadsItsOwnStdin() {
+        BatchExecutionRequest request = new BatchExecutionRequest();
+        request.setLanguage("python");
+        request.setCode(COUNT_STDIN);
+        request.setCases(List.of(testCase("a"), testCase(""), testCase("abc\n")));
+
+        BatchExecutionResponse response = executionService.executeBatch(request, new ExecutionHandle(), r -> {});
+
+        assertEquals(List.of("1", "0", "4"),
+                response.getResults().stream().map(r -> r.getStdout().trim()).toList());
+        assertEquals(3, response.getSucceeded());
+    }
+
+    @Test
+    void interactiveStdinEndsWhenInputIsClosed() throws Exception {
+        StdinPipe pipe = StdinPipe.open(1024, "first\n");
+        List<OutputFrame> frames = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() ->
+                executionService.executeStreaming(request(null), pipe, new ExecutionHandle(), frames::add));
+
+        pipe.write("second\n".getBytes(StandardCharsets.UTF_8), 1000);
+        pipe.closeInput();
+        run.get(30, TimeUnit.SECONDS);
+
+        OutputFrame exit = frames.get(frames.size() - 1);
+        assertEquals(0, exit.getExitCode());
+        assertTrue(frames.stream().anyMatch(f -> "13\n".equals(f.getData())));
+    }
+
+    private static ExecutionRequest request(String stdin) {
+        ExecutionRequest request = new ExecutionRequest();
+        request.setLanguage("python");
+        request.setCode(COUNT_STDIN);
+        request.setStdin(stdin);
+        return request;
+    }
+
+    private static TestCase testCase(String stdin) {
+        TestCase testCase = new TestCase();
+        testCase.setStdin(stdin);
+        return testCase;
+    }
+}
@@ -0,0 +1,95 @@
+package com.arashbox.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private RateLimiter rateLimiter;
+
+    @AfterEach
+    void shutdown() {
+        if (rateLimiter != null) rateLimiter.shutdown();
+    }
+
+    @Test
+    void admitsABurstOfCapacityThenRejects() {
+        RateLimiter.Limit limit = limit(3, 1, null);
+
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+        assertFalse(limit.tryAcquire("10.0.0.1", false));
+    }
+
+    @Test
+    void clientsHaveTheirOwnBuckets() {
+        RateLimiter.Limit limit = limit(1, 1, null);
+
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+        assertFalse(limit.tryAcquire("10.0.0.1", false));
+        assertTrue(limit.tryAcquire("10.0.0.2", false));
+        // The same name as a user is a different bucket from the IP
+        assertTrue(limit.tryAcquire("10.0.0.1", true));
+    }
+
+    @Test
+    void usersGetTheirOwnCapacity() {
+        RateLimiter.Limit limit = limit(1, 1, 2);
+
+        assertTrue(limit.tryAcquire("alice", true));
+        assertTrue(limit.tryAcquire("alice", true));
+        assertFalse(limit.tryAcquire("alice", true));
+    }
+
+    @Test
+    void tokensRefillOverTime() throws Exception {
+        // One token every 100ms
+        RateLimiter.Limit limit = limit(1, 600, null);
+
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+        assertFalse(limit.tryAcquire("10.0.0.1", false));
+        Thread.sleep(150);
+        assertTrue(limit.tryAcquire("10.0.0.1", false));
+    }
+
+    @Test
+    void pathsAndDestinationsResolveToTheirRule() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Rule execute = new RateLimitProperties.Rule();
+        execute.setPaths(List.of("/api/execute", "/api/execute/batch"));
+        execute.setDestinations(List.of("/app/execute"));
+        properties.getRules().put("execute", execute);
+        RateLimitProperties.Rule snippets = new RateLimitProperties.Rule();
+        snippets.setPaths(List.of("/api/snippets/**"));
+        properties.getRules().put("snippets", snippets);
+        rateLimiter = new RateLimiter(properties);
+
+        RateLimiter.Limit limit = rateLimiter.forPath("/api/execute");
+        assertSame(limit, rateLimiter.forPath("/api/execute/batch"));
+        assertSame(limit, rateLimiter.forDestination("/app/execute"));
+        assertSame(rateLimiter.forPath("/api/snippets/a/b"), rateLimiter.forPath("/api/snippets"));
+        assertTrue(rateLimiter.forPath("/api/snippets") != limit);
+        assertNull(rateLimiter.forPath("/api/execute/other"));
+        assertNull(rateLimiter.forDestination("/app/execute/stdin"));
+    }
+
+    private RateLimiter.Limit limit(int capacity, int refillPerMinute, Integer userCapacity) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setCapacity(capacity);
+        rule.setRefillPerMinute(refillPerMinute);
+        rule.setUserCapacity(userCapacity);
+        rule.setPaths(List.of("/limited"));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("test", rule);
+        rateLimiter = new RateLimiter(properties);
+        return rateLimiter.forPath("/limited");
+    }
+}
@@ -0,0 +1,77 @@
+package com.arashbox.controller;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.support.FakeDockerClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "arashbox.docker.hosts[0].name=fake",
+        "arashbox.docker.hosts[0].url=fake://a"
+})
+@ActiveProfiles("test")
+class ExecutionStreamTest {
+
+    private static final String BODY = "{\"language\":\"python\",\"code\":\"print(1)\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            return host -> FakeDockerClient.create(new FakeDockerClient.Settings());
+        }
+    }
+
+    @Test
+    void jsonClientsGetNdjson() throws Exception {
+        HttpResponse<String> response = post("application/json");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        String[] lines = response.body().split("\n");
+        assertEquals("exit", objectMapper.readTree(lines[lines.length - 1]).get("type").asText());
+    }
+
+    @Test
+    void eventStreamClientsGetSse() throws Exception {
+        HttpResponse<String> response = post("text/event-stream");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        assertTrue(response.body().contains("event: exit\n"));
+    }
+
+    private HttpResponse<String> post(String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/execute/stream"))
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
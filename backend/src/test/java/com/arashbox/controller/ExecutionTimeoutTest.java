@@ -0,0 +1,101 @@
+package com.arashbox.controller;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.support.FakeDockerClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * REST executions get the async request timeout for queueing plus their own deadline, so a
+ * batch that runs longer than the plain timeout still answers. Each exec takes the fake
+ * engine half a second, against a 1s request timeout and 3s per run.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mvc.async.request-timeout=1s",
+        "arashbox.execution.timeout-seconds=1",
+        "arashbox.execution.deadline-grace-seconds=0",
+        "arashbox.scheduler.max-concurrent=1",
+        "arashbox.execution.resource-usage=false",
+        "arashbox.docker.hosts[0].name=fake",
+        "arashbox.docker.hosts[0].url=fake://a"
+})
+@ActiveProfiles("test")
+class ExecutionTimeoutTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            FakeDockerClient.Settings settings = new FakeDockerClient.Settings();
+            settings.execLatencyMs = 500;
+            return host -> FakeDockerClient.create(settings);
+        }
+    }
+
+    @Test
+    void batchLongerThanTheRequestTimeoutCompletes() throws Exception {
+        HttpResponse<String> response = post("/api/execute/batch", batch(3));
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals(3, body.get("results").size());
+    }
+
+    @Test
+    void requestQueuedPastItsTimeoutIsAbandoned() throws Exception {
+        // Holds the only slot for about five seconds, longer than the 1s + 3s the next run gets
+        CompletableFuture<HttpResponse<String>> longBatch =
+                CompletableFuture.supplyAsync(() -> postUnchecked("/api/execute/batch", batch(10)));
+        Thread.sleep(300);
+
+        HttpResponse<String> queued = post("/api/execute", "{\"language\":\"python\",\"code\":\"print(1)\"}");
+
+        assertEquals(503, queued.statusCode());
+        assertEquals(200, longBatch.get().statusCode());
+    }
+
+    private static String batch(int cases) {
+        return "{\"language\":\"python\",\"code\":\"print(input())\",\"stopOnFailure\":false,\"cases\":["
+                + "{\"stdin\":\"x\"},".repeat(cases - 1) + "{\"stdin\":\"x\"}]}";
+    }
+
+    private HttpResponse<String> postUnchecked(String path, String body) {
+        try {
+            return post(path, body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
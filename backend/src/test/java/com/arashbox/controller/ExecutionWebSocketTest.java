@@ -0,0 +1,128 @@
+package com.arashbox.controller;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.support.FakeDockerClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "arashbox.docker.hosts[0].name=fake",
+        "arashbox.docker.hosts[0].url=fake://a"
+})
+@ActiveProfiles("test")
+class ExecutionWebSocketTest {
+
+    @LocalServerPort
+    private int port;
+
+    private StompSession session;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            return host -> FakeDockerClient.create(new FakeDockerClient.Settings());
+        }
+    }
+
+    @BeforeEach
+    void connect() throws Exception {
+        WebSocketStompClient stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        stomp.setMessageConverter(new MappingJackson2MessageConverter());
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setOrigin("http://localhost:4200");
+        session = stomp.connectAsync("ws://localhost:" + port + "/ws", headers,
+                new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void disconnect() {
+        session.disconnect();
+    }
+
+    @Test
+    void projectPathsAreValidatedOnStomp() throws Exception {
+        List<Map<?, ?>> frames = send("/app/execute", Map.of("language", "python", "code", "print(1)",
+                "files", List.of(Map.of("path", "../escape.py", "content", ""))));
+
+        assertEquals("error", frames.get(0).get("type"), frames.toString());
+        assertTrue(frames.get(0).get("message").toString().startsWith("Invalid request: files[0].path: "));
+        assertEquals(1, frames.get(1).get("exitCode"));
+    }
+
+    @Test
+    void batchWithoutCasesIsRejected() throws Exception {
+        List<Map<?, ?>> frames = send("/app/execute/batch", Map.of("language", "python", "code", "print(1)",
+                "entrypoint", "/etc/passwd", "cases", List.of()));
+
+        String message = frames.get(0).get("message").toString();
+        assertTrue(message.contains("cases: "), message);
+        assertTrue(message.contains("entrypoint: Entrypoint must be a relative project path"), message);
+        assertEquals(1, frames.get(1).get("exitCode"));
+    }
+
+    @Test
+    void validRequestsStillRun() throws Exception {
+        List<Map<?, ?>> frames = send("/app/execute", Map.of("language", "python", "code", "print(1)"));
+
+        assertEquals(0, frames.get(frames.size() - 1).get("exitCode"));
+    }
+
+    // Collects the run's frames up to and including its exit frame
+    private List<Map<?, ?>> send(String destination, Map<String, Object> payload) throws Exception {
+        String sessionId = UUID.randomUUID().toString();
+        List<Map<?, ?>> frames = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> exited = new CompletableFuture<>();
+        session.subscribe("/topic/execution/" + sessionId + "/output", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object frame) {
+                frames.add((Map<?, ?>) frame);
+                if ("exit".equals(((Map<?, ?>) frame).get("type"))) {
+                    exited.complete(null);
+                }
+            }
+        });
+        // The subscription is registered asynchronously; give it a moment before the run replies
+        Thread.sleep(200);
+
+        Map<String, Object> message = new HashMap<>(payload);
+        message.put("sessionId", sessionId);
+        session.send(destination, message);
+        exited.get(30, TimeUnit.SECONDS);
+        return frames;
+    }
+}
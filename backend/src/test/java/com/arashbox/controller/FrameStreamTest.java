@@ -0,0 +1,107 @@
+package com.arashbox.controller;
+
+import com.arashbox.dto.OutputFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesQueuedFramesThenEnds() throws Exception {
+        FrameStream stream = new FrameStream(FrameStream.Format.NDJSON, objectMapper, 1024 * 1024);
+        stream.accept(OutputFrame.stdout("hi\n"));
+        stream.accept(OutputFrame.exit(0, 5));
+        stream.complete();
+
+        String body = write(stream);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("stdout", objectMapper.readTree(lines[0]).get("type").asText());
+        assertEquals("exit", objectMapper.readTree(lines[1]).get("type").asText());
+    }
+
+    @Test
+    void sseFramesAreNamedEvents() throws Exception {
+        FrameStream stream = new FrameStream(FrameStream.Format.SSE, objectMapper, 1024 * 1024);
+        stream.accept(OutputFrame.stderr("oops"));
+        stream.complete();
+
+        assertTrue(write(stream).startsWith("event: stderr\ndata: {"));
+    }
+
+    // Frames may come from the shared output-flush thread, which must never wait on a client
+    @Test
+    void overflowNeverBlocksAndEndsTheResponse() throws Exception {
+        AtomicInteger disconnects = new AtomicInteger();
+        FrameStream stream = new FrameStream(FrameStream.Format.NDJSON, objectMapper, 1024);
+        stream.onDisconnect(disconnects::incrementAndGet);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            stream.accept(OutputFrame.stdout("x".repeat(100)));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, disconnects.get());
+
+        // The writer still wakes up and ends, with nothing but the reason
+        String body = write(stream);
+        assertEquals(1, body.split("\n").length);
+        assertEquals("error", objectMapper.readTree(body).get("type").asText());
+    }
+
+    @Test
+    void clientGoneStopsTheRunAndLaterFramesAreDropped() throws Exception {
+        AtomicInteger disconnects = new AtomicInteger();
+        FrameStream stream = new FrameStream(FrameStream.Format.NDJSON, objectMapper, 1024 * 1024);
+        stream.onDisconnect(disconnects::incrementAndGet);
+        stream.accept(OutputFrame.stdout("lost"));
+
+        stream.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+        stream.accept(OutputFrame.stdout("after"));
+        stream.complete();
+
+        assertEquals(1, disconnects.get());
+    }
+
+    @Test
+    void completeAfterDisconnectStillEndsTheResponse() throws Exception {
+        FrameStream stream = new FrameStream(FrameStream.Format.NDJSON, objectMapper, 10);
+        CompletableFuture<String> body = CompletableFuture.supplyAsync(() -> {
+            try {
+                return write(stream);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        stream.accept(OutputFrame.stdout("too big for the buffer"));
+        stream.complete();
+
+        assertEquals("error", objectMapper.readTree(body.get(5, TimeUnit.SECONDS)).get("type").asText());
+    }
+
+    private static String write(FrameStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
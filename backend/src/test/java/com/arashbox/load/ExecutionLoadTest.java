@@ -0,0 +1,225 @@
+package com.arashbox.load;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.support.FakeDockerClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load driver for the execution path against two FakeDockerClient hosts (weights 1 and 2),
+ * so the numbers reflect CodeExecutionService, host placement, the scheduler and the STOMP
+ * broker rather than container noise.
+ * Excluded from the normal build; run with {@code ./mvnw test -Pload}, tuning with
+ * -Dload.clients, -Dload.requests and the fake engine's -Dload.runtime-ms / -Dload.output-bytes.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "arashbox.cache.enabled=false",
+        "arashbox.scheduler.max-concurrent=64",
+        "arashbox.scheduler.queue-capacity=100000",
+        "arashbox.scheduler.max-in-flight-per-client=0",
+        "arashbox.rate-limit.rules.execute.capacity=1000000",
+        "arashbox.rate-limit.rules.execute.refill-per-minute=1000000",
+        "arashbox.docker.hosts[0].name=fake-a",
+        "arashbox.docker.hosts[0].url=fake://a",
+        "arashbox.docker.hosts[1].name=fake-b",
+        "arashbox.docker.hosts[1].url=fake://b",
+        "arashbox.docker.hosts[1].weight=2"
+})
+@ActiveProfiles("test")
+class ExecutionLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 50);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requests", 20);
+    private static final String CODE = "for i in range(100):\n    print(i)\n";
+
+    @LocalServerPort
+    private int port;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            FakeDockerClient.Settings settings = new FakeDockerClient.Settings();
+            settings.runtimeMs = Long.getLong("load.runtime-ms", settings.runtimeMs);
+            settings.outputBytes = Integer.getInteger("load.output-bytes", settings.outputBytes);
+            return host -> FakeDockerClient.create(settings);
+        }
+    }
+
+    @Test
+    void restExecute() throws Exception {
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        String body = "{\"language\":\"python\",\"code\":" + quote(CODE) + "}";
+        List<Long> timeToExit = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        runClients(client -> {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/execute"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                long sent = System.nanoTime();
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    timeToExit.add(System.nanoTime() - sent);
+                } else {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        report("REST /api/execute", elapsed, failures.get(), null, timeToExit);
+    }
+
+    @Test
+    void stompExecute() throws Exception {
+        WebSocketStompClient stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        stomp.setMessageConverter(new MappingJackson2MessageConverter());
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.setOrigin("http://localhost:4200");
+
+        List<Long> timeToFirstFrame = Collections.synchronizedList(new ArrayList<>());
+        List<Long> timeToExit = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        runClients(client -> {
+            StompSession session = stomp.connectAsync("ws://localhost:" + port + "/ws", handshakeHeaders,
+                    new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+            try {
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    String sessionId = UUID.randomUUID().toString();
+                    CompletableFuture<Void> exited = new CompletableFuture<>();
+                    long[] firstFrameAt = {0};
+                    long sent = System.nanoTime();
+
+                    StompSession.Subscription subscription = session.subscribe(
+                            "/topic/execution/" + sessionId + "/output", new StompFrameHandler() {
+                                @Override
+                                public Type getPayloadType(StompHeaders headers) {
+                                    return Map.class;
+                                }
+
+                                @Override
+                                public void handleFrame(StompHeaders headers, Object payload) {
+                                    String type = String.valueOf(((Map<?, ?>) payload).get("type"));
+                                    if (firstFrameAt[0] == 0 && !"queued".equals(type)) {
+                                        firstFrameAt[0] = System.nanoTime();
+                                    }
+                                    if ("exit".equals(type)) {
+                                        exited.complete(null);
+                                    }
+                                }
+                            });
+                    session.send("/app/execute", Map.of("sessionId", sessionId, "language", "python", "code", CODE));
+
+                    try {
+                        exited.get(60, TimeUnit.SECONDS);
+                        timeToFirstFrame.add(firstFrameAt[0] - sent);
+                        timeToExit.add(System.nanoTime() - sent);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        subscription.unsubscribe();
+                    }
+                }
+            } finally {
+                session.disconnect();
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        report("STOMP /app/execute", elapsed, failures.get(), timeToFirstFrame, timeToExit);
+    }
+
+    @FunctionalInterface
+    private interface ClientLoop {
+        void run(int client) throws Exception;
+    }
+
+    private static void runClients(ClientLoop loop) throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                done.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        loop.run(client);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, clients));
+            }
+            CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+        }
+    }
+
+    private static void report(String name, long elapsedNanos, int failures,
+                               List<Long> timeToFirstFrame, List<Long> timeToExit) {
+        int completed = timeToExit.size();
+        System.out.printf("%n=== %s: %d clients x %d requests ===%n", name, CLIENTS, REQUESTS_PER_CLIENT);
+        System.out.printf("completed %d, failed %d, throughput %.1f executions/s%n",
+                completed, failures, completed / (elapsedNanos / 1e9));
+        if (timeToFirstFrame != null) {
+            printPercentiles("time-to-first-frame", timeToFirstFrame);
+        }
+        printPercentiles("time-to-exit", timeToExit);
+
+        assertEquals(0, failures, "executions failed under load");
+    }
+
+    private static void printPercentiles(String metric, List<Long> samplesNanos) {
+        List<Long> sorted = new ArrayList<>(samplesNanos);
+        Collections.sort(sorted);
+        System.out.printf("%-20s p50 %7.1f ms   p95 %7.1f ms   p99 %7.1f ms%n", metric,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99));
+    }
+
+    private static double percentile(List<Long> sorted, int p) {
+        if (sorted.isEmpty()) return Double.NaN;
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,70 @@
+package com.arashbox.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeBlobTest {
+
+    @Test
+    void compressibleCodeRoundTrips() {
+        String code = "print('hello, world')\n".repeat(200);
+        CodeBlob blob = blob(code);
+
+        assertTrue(blob.isCompressed());
+        assertTrue(blob.getData().length < blob.getOriginalSize());
+        assertEquals(code, blob.decode());
+    }
+
+    @Test
+    void codeThatDoesNotShrinkIsStoredAsIs() {
+        // Deflate's framing outweighs anything it could save on a few bytes
+        String code = "print(1)";
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        CodeBlob blob = CodeBlob.of(CodeBlob.hash(bytes), bytes);
+
+        assertFalse(blob.isCompressed());
+        assertArrayEquals(bytes, blob.getData());
+        assertEquals(code, blob.decode());
+    }
+
+    @Test
+    void multiByteCharactersSurvive() {
+        String code = "# 日本語のコメント — ünïcödé 🚀\nprint('ok')\n".repeat(50);
+
+        assertEquals(code, blob(code).decode());
+    }
+
+    @Test
+    void emptyCodeRoundTrips() {
+        assertEquals("", blob("").decode());
+    }
+
+    @Test
+    void hashIsTheSha256OfTheUtf8Bytes() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                CodeBlob.hash(new byte[0]));
+        assertEquals(blob("x = 1\n").getHash(), blob("x = 1\n").getHash());
+    }
+
+    @Test
+    void damagedDataIsReportedAsCorrupt() {
+        CodeBlob blob = blob("print(1)\n".repeat(100));
+        byte[] data = blob.getData();
+        Arrays.fill(data, data.length / 2, data.length, (byte) 0);
+
+        assertThrows(IllegalStateException.class, blob::decode);
+    }
+
+    private static CodeBlob blob(String code) {
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        return CodeBlob.of(CodeBlob.hash(bytes), bytes);
+    }
+}
@@ -0,0 +1,92 @@
+package com.arashbox.service;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.support.FakeDockerClient;
+import com.github.dockerjava.api.model.Container;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A batch can run longer than the deadline its container was labelled with at creation.
+ * Containers are created already past their deadline here, so only being checked out
+ * keeps them from the sweep.
+ */
+@SpringBootTest(properties = {
+        "arashbox.reaper.max-container-age-seconds=0",
+        "arashbox.reaper.sweep-interval-seconds=3600",
+        "arashbox.docker.hosts[0].name=fake",
+        "arashbox.docker.hosts[0].url=fake://a"
+})
+@ActiveProfiles("test")
+class ContainerSweepTest {
+
+    @Autowired
+    private ContainerPool containerPool;
+
+    @Autowired
+    private ContainerReaper containerReaper;
+
+    @Autowired
+    private LanguageRegistry languages;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            return host -> FakeDockerClient.create(new FakeDockerClient.Settings());
+        }
+    }
+
+    @Test
+    void sweepLeavesCheckedOutContainersToTheirRun() throws Exception {
+        SandboxContainer container = containerPool.acquire("python", languages.get("python").getImage());
+        Thread.sleep(5);
+
+        containerReaper.sweep();
+        awaitReaper();
+        assertTrue(exists(container), "a checked-out container was swept");
+
+        containerPool.release(container);
+        awaitReaper();
+        assertFalse(exists(container));
+    }
+
+    @Test
+    void sweepRemovesExpiredContainersNobodyHolds() throws Exception {
+        SandboxContainer container = containerPool.acquire("python", languages.get("python").getImage());
+        containerReaper.checkIn(container);
+        Thread.sleep(5);
+
+        containerReaper.sweep();
+        awaitReaper();
+        assertFalse(exists(container));
+        container.host().released();
+    }
+
+    private void awaitReaper() throws InterruptedException {
+        // The worker drains the queue in the background; give the removals a moment to finish
+        for (int i = 0; i < 100 && containerReaper.getPending() > 0; i++) Thread.sleep(10);
+        Thread.sleep(100);
+    }
+
+    private static boolean exists(SandboxContainer container) {
+        return container.host().getClient().listContainersCmd()
+                .withShowAll(true)
+                .withLabelFilter(Map.of(ContainerReaper.LABEL, ContainerReaper.LABEL_VALUE))
+                .exec().stream()
+                .map(Container::getId)
+                .anyMatch(container.id()::equals);
+    }
+}
@@ -0,0 +1,108 @@
+package com.arashbox.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExecutionSchedulerTest {
+
+    private ExecutionScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void queuedJobsRunRoundRobinAcrossClients() throws Exception {
+        scheduler = scheduler(1, 100, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = scheduler.submit("z", () -> await(release), position -> {});
+
+        List<String> ran = new CopyOnWriteArrayList<>();
+        Map<String, Integer> positions = new ConcurrentHashMap<>();
+        List<CompletableFuture<String>> jobs = List.of("a1", "a2", "a3", "a4", "b1", "b2", "c1").stream()
+                .map(name -> scheduler.submit(name.substring(0, 1), () -> {
+                    ran.add(name);
+                    return name;
+                }, position -> positions.put(name, position)))
+                .toList();
+
+        // A burst from "a" doesn't push "b" and "c" to the back
+        assertEquals(Map.of("a1", 1, "b1", 2, "c1", 3, "a2", 4, "b2", 5, "a3", 6, "a4", 7), positions);
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<String> job : jobs) job.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a1", "b1", "c1", "a2", "b2", "a3", "a4"), ran);
+    }
+
+    @Test
+    void positionsMoveUpAsJobsStart() throws Exception {
+        scheduler = scheduler(1, 100, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit("z", () -> await(release), position -> {});
+
+        List<Integer> positions = new CopyOnWriteArrayList<>();
+        scheduler.submit("a", () -> "a1", position -> {});
+        CompletableFuture<String> second = scheduler.submit("a", () -> "a2", positions::add);
+        release.countDown();
+        second.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(2, 1), positions);
+    }
+
+    @Test
+    void fullQueueRejects() {
+        scheduler = scheduler(1, 2, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.submit("z", () -> await(release), position -> {});
+            scheduler.submit("a", () -> "a1", position -> {});
+            scheduler.submit("b", () -> "b1", position -> {});
+
+            assertThrows(RejectedExecutionException.class, () -> scheduler.submit("c", () -> "c1", position -> {}));
+            assertEquals(2, scheduler.getQueued());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void clientAtItsInFlightCapIsRejected() throws Exception {
+        scheduler = scheduler(4, 100, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = scheduler.submit("a", () -> await(release), position -> {});
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit("a", () -> "a2", position -> {}));
+        assertEquals("b", scheduler.submit("b", () -> "b", position -> {}).get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    private static ExecutionScheduler scheduler(int maxConcurrent, int queueCapacity, int maxPerClient) {
+        return new ExecutionScheduler(maxConcurrent, queueCapacity, 0.5,
+                new InFlightLimiter(null, maxPerClient, false, 30));
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -0,0 +1,83 @@
+package com.arashbox.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCaptureTest {
+
+    @Test
+    void shortOutputIsKeptWhole() {
+        OutputCapture capture = new OutputCapture(8, 8);
+        capture.append(bytes("hello "));
+        capture.append(bytes("world"));
+
+        assertEquals("hello world", capture.text());
+        assertEquals(0, capture.omittedBytes());
+    }
+
+    @Test
+    void outputThatExactlyFillsHeadAndTailIsNotCut() {
+        OutputCapture capture = new OutputCapture(4, 4);
+        capture.append(bytes("abcdefgh"));
+
+        assertEquals("abcdefgh", capture.text());
+    }
+
+    @Test
+    void longOutputKeepsItsHeadAndTail() {
+        OutputCapture capture = new OutputCapture(4, 4);
+        capture.append(bytes("abcd0123456789wxyz"));
+
+        assertEquals("abcd\n... [10 bytes omitted] ...\nwxyz", capture.text());
+        assertEquals(10, capture.omittedBytes());
+    }
+
+    // Any way of chunking the same output captures the same head and tail
+    @Test
+    void chunkingDoesNotChangeTheCapture() {
+        Random random = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            int headBytes = 1 + random.nextInt(16);
+            int tailBytes = 1 + random.nextInt(16);
+            OutputCapture capture = new OutputCapture(headBytes, tailBytes);
+            ByteArrayOutputStream all = new ByteArrayOutputStream();
+            for (int writes = random.nextInt(20); writes > 0; writes--) {
+                byte[] chunk = new byte[random.nextInt(40)];
+                for (int i = 0; i < chunk.length; i++) chunk[i] = (byte) ('a' + random.nextInt(26));
+                capture.append(chunk);
+                all.writeBytes(chunk);
+            }
+
+            String output = all.toString(StandardCharsets.US_ASCII);
+            int omitted = Math.max(0, output.length() - headBytes - tailBytes);
+            String expected = omitted == 0 ? output
+                    : output.substring(0, headBytes) + "\n... [" + omitted + " bytes omitted] ...\n"
+                    + output.substring(output.length() - tailBytes);
+            assertEquals(expected, capture.text());
+            assertEquals(omitted, capture.omittedBytes());
+        }
+    }
+
+    @Test
+    void cutsInsideACharacterDropThePartialBytes() {
+        // Each "é" is two bytes; a 3-byte head and 3-byte tail each end up with half of one
+        OutputCapture capture = new OutputCapture(3, 3);
+        capture.append(bytes("éééééééé"));
+
+        String text = capture.text();
+        assertFalse(text.contains("�"), text);
+        assertTrue(text.startsWith("é\n... ["), text);
+        assertTrue(text.endsWith("] ...\né"), text);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
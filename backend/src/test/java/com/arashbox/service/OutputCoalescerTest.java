@@ -0,0 +1,85 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.OutputFrame;
+import com.github.dockerjava.api.model.StreamType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCoalescerTest {
+
+    private final List<OutputFrame> frames = new ArrayList<>();
+
+    @Test
+    void characterSplitAcrossFramesComesOutWhole() {
+        OutputCoalescer coalescer = new OutputCoalescer(1024, 1024, frames::add);
+        byte[] bytes = "aé🚀b".getBytes(StandardCharsets.UTF_8);
+        // One docker frame per byte splits both the 2-byte and the 4-byte character
+        for (byte b : bytes) {
+            coalescer.accept(StreamType.STDOUT, new byte[]{b});
+        }
+        coalescer.finish();
+
+        assertEquals(List.of("stdout:aé🚀b"), describe());
+    }
+
+    @Test
+    void eachStreamKeepsItsOwnPartialCharacter() {
+        OutputCoalescer coalescer = new OutputCoalescer(1024, 1024, frames::add);
+        byte[] e = "é".getBytes(StandardCharsets.UTF_8);
+        coalescer.accept(StreamType.STDOUT, new byte[]{e[0]});
+        coalescer.accept(StreamType.STDERR, "oops".getBytes(StandardCharsets.UTF_8));
+        coalescer.accept(StreamType.STDOUT, new byte[]{e[1]});
+        coalescer.finish();
+
+        assertEquals(List.of("stderr:oops", "stdout:é"), describe());
+    }
+
+    @Test
+    void consecutiveTextIsMergedUntilFlushBytes() {
+        OutputCoalescer coalescer = new OutputCoalescer(1024, 8, frames::add);
+        coalescer.accept(StreamType.STDOUT, "abc".getBytes(StandardCharsets.UTF_8));
+        coalescer.accept(StreamType.STDOUT, "def".getBytes(StandardCharsets.UTF_8));
+        assertTrue(frames.isEmpty());
+
+        coalescer.accept(StreamType.STDOUT, "gh".getBytes(StandardCharsets.UTF_8));
+        coalescer.accept(StreamType.STDOUT, "i".getBytes(StandardCharsets.UTF_8));
+        coalescer.flush();
+
+        assertEquals(List.of("stdout:abcdefgh", "stdout:i"), describe());
+    }
+
+    @Test
+    void limitCountsBytesAndDropsTheCutCharacter() {
+        // Three bytes allow one "é" and half of the next
+        OutputCoalescer coalescer = new OutputCoalescer(3, 1024, frames::add);
+        coalescer.accept(StreamType.STDOUT, "éé".getBytes(StandardCharsets.UTF_8));
+        coalescer.accept(StreamType.STDOUT, "more".getBytes(StandardCharsets.UTF_8));
+        coalescer.finish();
+
+        assertTrue(coalescer.isTruncated());
+        assertEquals(List.of("stdout:é"), describe());
+    }
+
+    @Test
+    void danglingBytesAtTheEndAreReplaced() {
+        OutputCoalescer coalescer = new OutputCoalescer(1024, 1024, frames::add);
+        byte[] rocket = "🚀".getBytes(StandardCharsets.UTF_8);
+        coalescer.accept(StreamType.STDOUT, Arrays.copyOf(rocket, 2));
+        coalescer.finish();
+
+        assertFalse(coalescer.isTruncated());
+        assertEquals(List.of("stdout:�"), describe());
+    }
+
+    private List<String> describe() {
+        return frames.stream().map(f -> f.getType() + ":" + f.getData()).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.ExecutionRequest;
+import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.dto.ProjectFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "arashbox.execution.max-project-bytes=2048")
+@ActiveProfiles("test")
+class ProjectLimitTest {
+
+    @Autowired
+    private CodeExecutionService codeExecutionService;
+
+    // Neither file is over the limit alone; the main file has to count towards it too
+    @Test
+    void mainFileCountsTowardsTheProjectLimit() {
+        ProjectFile helper = new ProjectFile();
+        helper.setPath("helper.py");
+        helper.setContent("#".repeat(1000));
+        ExecutionRequest request = new ExecutionRequest();
+        request.setLanguage("python");
+        request.setCode("#".repeat(1500));
+        request.setFiles(List.of(helper));
+
+        ExecutionResponse response = codeExecutionService.execute(request);
+
+        assertEquals("Project exceeds 2KB", response.getStderr().trim());
+    }
+}
@@ -0,0 +1,62 @@
+package com.arashbox.service;
+
+import com.arashbox.config.DockerClientFactory;
+import com.arashbox.dto.ExecutionRequest;
+import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.support.FakeDockerClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The result cache's output limit is in bytes. The fake engine prints 40,000 "é": fewer
+ * chars than the 64KB limit, but 80,000 UTF-8 bytes, so the run must not be cached.
+ */
+@SpringBootTest(properties = {
+        "arashbox.cache.enabled=true",
+        "arashbox.execution.resource-usage=false",
+        "arashbox.docker.hosts[0].name=fake",
+        "arashbox.docker.hosts[0].url=fake://a"
+})
+@ActiveProfiles("test")
+class ResultCacheLimitTest {
+
+    @Autowired
+    private CodeExecutionService codeExecutionService;
+
+    @Autowired
+    private ExecutionResultCache resultCache;
+
+    @TestConfiguration
+    static class FakeDockerConfig {
+
+        @Bean
+        @Primary
+        DockerClientFactory fakeDockerClients() {
+            FakeDockerClient.Settings settings = new FakeDockerClient.Settings();
+            settings.outputText = "é";
+            settings.outputBytes = 80_000;
+            return host -> FakeDockerClient.create(settings);
+        }
+    }
+
+    @Test
+    void multiByteOutputOverTheByteLimitIsNotCached() {
+        ExecutionRequest request = new ExecutionRequest();
+        request.setLanguage("python");
+        request.setCode("print('é' * 40000)");
+
+        ExecutionResponse response = codeExecutionService.execute(request);
+
+        assertEquals(0, response.getExitCode());
+        assertTrue(response.getStdout().startsWith("éé"));
+        assertEquals(0, resultCache.getEntryCount());
+    }
+}
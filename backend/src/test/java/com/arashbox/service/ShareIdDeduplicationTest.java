@@ -0,0 +1,49 @@
+package com.arashbox.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "arashbox.blobs.migrate-on-startup=false")
+@ActiveProfiles("test")
+class ShareIdDeduplicationTest {
+
+    @Autowired
+    private ShareIdDeduplication shareIdDeduplication;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oldestSnippetKeepsTheShareIdAndTheConstraintIsAdded() {
+        // A database from before the constraint, where ddl-auto couldn't add it
+        jdbcTemplate.execute("alter table snippets drop constraint uk_snippets_share_id");
+        insert("dupe0001");
+        insert("dupe0001");
+        insert("dupe0001");
+        insert("uniq0001");
+
+        shareIdDeduplication.run();
+
+        List<String> shareIds = jdbcTemplate.queryForList(
+                "select share_id from snippets where title = 'dedupe' order by id", String.class);
+        assertEquals(4, new HashSet<>(shareIds).size());
+        assertEquals("dupe0001", shareIds.get(0));
+        assertEquals("uniq0001", shareIds.get(3));
+        assertThrows(DataIntegrityViolationException.class, () -> insert("uniq0001"));
+    }
+
+    private void insert(String shareId) {
+        jdbcTemplate.update("insert into snippets (title, language, user_id, share_id, created_at, updated_at) "
+                + "values ('dedupe', 'python', 'user', ?, current_timestamp, current_timestamp)", shareId);
+    }
+}
@@ -0,0 +1,141 @@
+package com.arashbox.service;
+
+import com.arashbox.model.Snippet;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnippetCacheTest {
+
+    private final SnippetCache cache = cache(true, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void hitsHandOutCopies() {
+        Snippet first = cache.get("id:1", () -> load(snippet(1L, "original"))).orElseThrow();
+        Snippet second = cache.get("id:1", () -> load(snippet(1L, "reloaded"))).orElseThrow();
+        second.setTitle("changed by the caller");
+
+        assertEquals("original", cache.get("id:1", () -> load(null)).orElseThrow().getTitle());
+        assertNotSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void unknownIdsAreCachedToo() {
+        cache.get("id:404", () -> load(null));
+
+        assertTrue(cache.get("id:404", () -> load(snippet(404L, "appeared"))).isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateDropsBothKeys() {
+        Snippet snippet = snippet(1L, "old");
+        cache.get(SnippetCache.idKey(1L), () -> load(snippet));
+        cache.get(SnippetCache.shareKey("abc"), () -> load(snippet));
+
+        cache.invalidate(snippet);
+
+        assertEquals("new", cache.get(SnippetCache.idKey(1L), () -> load(snippet(1L, "new"))).orElseThrow().getTitle());
+        assertEquals("new", cache.get(SnippetCache.shareKey("abc"), () -> load(snippet(1L, "new"))).orElseThrow().getTitle());
+        assertEquals(4, loads.get());
+    }
+
+    // A load that read the row before a concurrent save must not cache the old version
+    @Test
+    void loadRacingAWriteIsNotStored() {
+        Snippet stale = cache.get("id:1", () -> {
+            cache.invalidate(snippet(1L, "saved meanwhile"));
+            return load(snippet(1L, "stale"));
+        }).orElseThrow();
+
+        assertEquals("stale", stale.getTitle());
+        assertEquals("fresh", cache.get("id:1", () -> load(snippet(1L, "fresh"))).orElseThrow().getTitle());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Optional<Snippet>> first = CompletableFuture.supplyAsync(() -> cache.get("id:1", () -> {
+            loading.countDown();
+            await(finish);
+            return load(snippet(1L, "loaded once"));
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Optional<Snippet>> second = CompletableFuture.supplyAsync(
+                () -> cache.get("id:1", () -> load(snippet(1L, "loaded twice"))));
+        while (cache.getCoalesced() == 0) Thread.sleep(1);
+        finish.countDown();
+
+        assertEquals("loaded once", first.get(5, TimeUnit.SECONDS).orElseThrow().getTitle());
+        assertEquals("loaded once", second.get(5, TimeUnit.SECONDS).orElseThrow().getTitle());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        SnippetCache small = cache(true, 2);
+        small.get("id:1", () -> load(snippet(1L, "one")));
+        small.get("id:2", () -> load(snippet(2L, "two")));
+        small.get("id:1", () -> load(null));
+        small.get("id:3", () -> load(snippet(3L, "three")));
+
+        assertEquals(2, small.getEntryCount());
+        small.get("id:1", () -> load(null));
+        small.get("id:2", () -> load(snippet(2L, "two")));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        SnippetCache disabled = cache(false, 100);
+        disabled.get("id:1", () -> load(snippet(1L, "one")));
+        disabled.get("id:1", () -> load(snippet(1L, "one")));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.getEntryCount());
+    }
+
+    private Optional<Snippet> load(Snippet snippet) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(snippet);
+    }
+
+    private static Snippet snippet(Long id, String title) {
+        Snippet snippet = new Snippet();
+        snippet.setId(id);
+        snippet.setTitle(title);
+        snippet.setShareId("abc");
+        return snippet;
+    }
+
+    private static SnippetCache cache(boolean enabled, int maxEntries) {
+        SnippetCache cache = new SnippetCache();
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        return cache;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.SnippetPage;
+import com.arashbox.dto.SnippetSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "arashbox.blobs.migrate-on-startup=false")
+@ActiveProfiles("test")
+class SnippetPagingTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2026, 1, 1, 10, 0);
+    private static final LocalDateTime T2 = T1.plusHours(1);
+    private static final LocalDateTime T3 = T1.plusHours(2);
+
+    @Autowired
+    private SnippetService snippetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Rows sharing an updatedAt are ordered by id, so a page boundary inside a tie neither repeats nor skips rows
+    @Test
+    void pagesWalkEveryRowOnceInOrder() {
+        insert("walker", "t1", T1);
+        insert("walker", "t2-first", T2);
+        insert("walker", "t2-second", T2);
+        insert("walker", "t2-third", T2);
+        insert("walker", "t3", T3);
+        insert("someone-else", "other", T2);
+
+        List<String> titles = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            SnippetPage page = snippetService.findByUserId("walker", cursor, 2);
+            page.getItems().forEach(item -> titles.add(item.getTitle()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("t3", "t2-third", "t2-second", "t2-first", "t1"), titles);
+        assertEquals(List.of(2, 2, 1), pageSizes);
+    }
+
+    @Test
+    void exactlyFullPageHasNoNextCursor() {
+        insert("exact", "a", T1);
+        insert("exact", "b", T2);
+
+        SnippetPage page = snippetService.findByUserId("exact", null, 2);
+
+        assertEquals(List.of("b", "a"), page.getItems().stream().map(SnippetSummary::getTitle).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        insert("clamped", "a", T1);
+        insert("clamped", "b", T2);
+
+        assertEquals(1, snippetService.findByUserId("clamped", null, 0).getItems().size());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> snippetService.findByUserId("walker", "not a cursor", 2));
+    }
+
+    private void insert(String userId, String title, LocalDateTime updatedAt) {
+        jdbcTemplate.update("insert into snippets (title, language, user_id, share_id, created_at, updated_at) "
+                        + "values (?, 'python', ?, ?, ?, ?)",
+                title, userId, SnippetService.newShareId(), Timestamp.valueOf(T1), Timestamp.valueOf(updatedAt));
+    }
+}
@@ -0,0 +1,96 @@
+package com.arashbox.service;
+
+import com.arashbox.model.CodeBlob;
+import com.arashbox.model.Snippet;
+import com.arashbox.repository.SnippetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Snippet code goes through code_blobs. Nothing here runs inside a transaction, so cached
+ * copies must decode their blob after the session that loaded it has closed.
+ */
+@SpringBootTest(properties = "arashbox.blobs.migrate-on-startup=false")
+@ActiveProfiles("test")
+class SnippetStorageTest {
+
+    @Autowired
+    private SnippetService snippetService;
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private SnippetCache snippetCache;
+
+    @Autowired
+    private CodeBlobMigration codeBlobMigration;
+
+    @Test
+    void cachedCopiesDecodeTheirBlob() {
+        String code = "print('cached')\n".repeat(100);
+        Snippet saved = snippetService.save(snippet(code));
+
+        long hits = snippetCache.getHits();
+        assertEquals(code, snippetService.findById(saved.getId()).orElseThrow().getCode());
+        assertEquals(code, snippetService.findById(saved.getId()).orElseThrow().getCode());
+        assertEquals(code, snippetService.findByShareId(saved.getShareId()).orElseThrow().getCode());
+        assertEquals(code, snippetService.findByShareId(saved.getShareId()).orElseThrow().getCode());
+        assertEquals(hits + 2, snippetCache.getHits());
+    }
+
+    @Test
+    void updatingACachedCopyStoresAndReturnsTheNewCode() {
+        Snippet saved = snippetService.save(snippet("print('old')\n"));
+
+        Snippet existing = snippetService.findById(saved.getId()).orElseThrow();
+        existing.setCode("print('new')\n");
+        Snippet updated = snippetService.save(existing);
+
+        assertEquals("print('new')\n", updated.getCode());
+        assertEquals("print('new')\n", snippetService.findById(saved.getId()).orElseThrow().getCode());
+    }
+
+    @Test
+    void identicalCodeSharesOneBlob() {
+        String code = "print('forked')\n";
+        Snippet first = snippetService.save(snippet(code));
+        Snippet fork = snippetService.save(snippet(code));
+
+        String hash = CodeBlob.hash(code.getBytes(StandardCharsets.UTF_8));
+        assertEquals(hash, snippetRepository.findById(first.getId()).orElseThrow().getCodeHash());
+        assertEquals(hash, snippetRepository.findById(fork.getId()).orElseThrow().getCodeHash());
+    }
+
+    @Test
+    void migrationMovesInlineCodeWithoutTouchingUpdatedAt() {
+        Snippet legacy = snippet(null);
+        legacy.setLegacyCode("print('legacy')\n");
+        legacy = snippetRepository.save(legacy);
+        var updatedAt = snippetRepository.findById(legacy.getId()).orElseThrow().getUpdatedAt();
+
+        codeBlobMigration.migrate();
+
+        Snippet migrated = snippetRepository.findById(legacy.getId()).orElseThrow();
+        assertNull(migrated.getLegacyCode());
+        assertEquals(CodeBlob.hash("print('legacy')\n".getBytes(StandardCharsets.UTF_8)), migrated.getCodeHash());
+        assertEquals(updatedAt, migrated.getUpdatedAt());
+        assertEquals("print('legacy')\n", snippetService.findById(legacy.getId()).orElseThrow().getCode());
+    }
+
+    private static Snippet snippet(String code) {
+        Snippet snippet = new Snippet();
+        snippet.setTitle("test");
+        snippet.setLanguage("python");
+        snippet.setUserId("user");
+        snippet.setCode(code);
+        return snippet;
+    }
+}
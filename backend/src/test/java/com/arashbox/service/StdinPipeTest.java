@@ -0,0 +1,132 @@
+package com.arashbox.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StdinPipeTest {
+
+    @Test
+    void oneShotPipeIsAtEofAfterItsText() throws Exception {
+        StdinPipe pipe = StdinPipe.of("héllo\n");
+
+        assertArrayEquals("héllo\n".getBytes(StandardCharsets.UTF_8), pipe.readAllBytes());
+        assertEquals(-1, pipe.read());
+    }
+
+    @Test
+    void writerWaitsForRoomAndGivesUp() throws Exception {
+        StdinPipe pipe = new StdinPipe(4);
+        assertTrue(pipe.write(new byte[3], 0));
+
+        assertFalse(pipe.write(new byte[2], 50));
+
+        assertEquals(3, pipe.read(new byte[8], 0, 8));
+        assertTrue(pipe.write(new byte[2], 0));
+    }
+
+    @Test
+    void oversizedChunkIsAcceptedOnceDrained() throws Exception {
+        StdinPipe pipe = new StdinPipe(4);
+
+        assertTrue(pipe.write(new byte[10], 0));
+        assertFalse(pipe.write(new byte[1], 0));
+    }
+
+    @Test
+    void readerBlocksUntilInputArrivesOrCloses() throws Exception {
+        StdinPipe pipe = new StdinPipe(16);
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipe.readAllBytes();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        pipe.write("ab".getBytes(StandardCharsets.UTF_8), 1000);
+        pipe.write("cd".getBytes(StandardCharsets.UTF_8), 1000);
+        pipe.closeInput();
+
+        assertEquals("abcd", new String(read.get(5, TimeUnit.SECONDS), StandardCharsets.UTF_8));
+        assertFalse(pipe.write(new byte[1], 0));
+    }
+
+    @Test
+    void closeDropsPendingBytes() throws Exception {
+        StdinPipe pipe = StdinPipe.open(16, "pending");
+        pipe.close();
+
+        assertEquals(-1, pipe.read());
+        assertFalse(pipe.write(new byte[1], 0));
+    }
+
+    @Test
+    void framedViewPrefixesChunksAndEndsWithAnEmptyFrame() throws Exception {
+        StdinPipe pipe = StdinPipe.open(64, "abc");
+        pipe.write("de".getBytes(StandardCharsets.UTF_8), 0);
+        pipe.closeInput();
+
+        assertEquals("3\nabc2\nde0\n", new String(pipe.framed().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    // The exec stream never half-closes stdin, so the program has to get its EOF from the
+    // empty frame while the process's own stdin stays open
+    @Test
+    void framedScriptDeliversEofWithoutClosingStdin() throws Exception {
+        Process process = new ProcessBuilder(CodeExecutionService.withFramedStdin(List.of("wc", "-c")))
+                .redirectErrorStream(true)
+                .start();
+        StdinPipe pipe = new StdinPipe(1024);
+        OutputStream stdin = process.getOutputStream();
+        Thread copier = Thread.ofVirtual().start(() -> {
+            try {
+                InputStream framed = pipe.framed();
+                byte[] buffer = new byte[8192];
+                for (int n; (n = framed.read(buffer, 0, buffer.length)) != -1; ) {
+                    stdin.write(buffer, 0, n);
+                    stdin.flush();
+                }
+            } catch (Exception e) {
+                // The process went away
+            }
+        });
+        try {
+            pipe.write("12345\n".getBytes(StandardCharsets.UTF_8), 1000);
+            pipe.write(new byte[20_000], 1000);
+            pipe.closeInput();
+
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS), "program never saw EOF");
+            assertEquals(0, process.exitValue());
+            assertEquals("20006", new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim());
+        } finally {
+            process.destroyForcibly();
+            copier.join(5_000);
+            stdin.close();
+        }
+    }
+
+    @Test
+    void framedScriptDoesNotWaitForInputTheProgramNeverReads() throws Exception {
+        Process process = new ProcessBuilder(CodeExecutionService.withFramedStdin(List.of("echo", "done")))
+                .redirectErrorStream(true)
+                .start();
+        try {
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS), "run waited on its stdin");
+            assertEquals("done", new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim());
+        } finally {
+            process.destroyForcibly();
+            process.getOutputStream().close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.arashbox.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TarArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void archiveIsWholeRecords() throws Exception {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("project/main.py", "print(1)\n".getBytes(StandardCharsets.UTF_8));
+        files.put("project/big.bin", new byte[25_000]);
+
+        byte[] tar = TarArchive.of(files).readAllBytes();
+
+        assertEquals(0, tar.length % 10240);
+    }
+
+    // The exec stream never half-closes stdin, so tar has to stop at the end-of-archive
+    // blocks on its own rather than wait for EOF
+    @Test
+    void tarExtractsWithoutStdinEof() throws Exception {
+        byte[] big = new byte[70_001];
+        for (int i = 0; i < big.length; i++) big[i] = (byte) i;
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("project/main.py", "print('héllo')\n".getBytes(StandardCharsets.UTF_8));
+        files.put("project/pkg/data.bin", big);
+        files.put("project/empty.txt", new byte[0]);
+
+        Process tar = new ProcessBuilder("tar", "-x", "-f", "-", "-C", dir.toString())
+                .redirectErrorStream(true)
+                .start();
+        OutputStream stdin = tar.getOutputStream();
+        try {
+            TarArchive.of(files).transferTo(stdin);
+            stdin.flush();
+
+            assertTrue(tar.waitFor(10, TimeUnit.SECONDS), "tar waited for more input");
+            assertEquals(0, tar.exitValue(), new String(tar.getInputStream().readAllBytes()));
+        } finally {
+            tar.destroyForcibly();
+            stdin.close();
+        }
+
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), Files.readAllBytes(dir.resolve(file.getKey())));
+        }
+    }
+
+    @Test
+    void rejectsPathsLongerThanTheHeaderField() {
+        String path = "project/" + "a".repeat(TarArchive.MAX_PATH_LENGTH);
+        assertThrows(IllegalArgumentException.class, () -> TarArchive.of(Map.of(path, new byte[0])));
+    }
+}
@@ -0,0 +1,216 @@
+package com.arashbox.support;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the Docker engine. It implements just the commands the
+ * execution path uses, as dynamic proxies: container create/start/remove/list and exec
+ * create/start/inspect, plus ping. Every step takes a configurable latency, and an exec
+ * streams a configurable amount of output, so CodeExecutionService, the scheduler and
+ * the broker can be load-tested without a daemon. Any other command throws.
+ */
+public final class FakeDockerClient {
+
+    public static class Settings {
+        public long createLatencyMs = 20;
+        public long startLatencyMs = 30;
+        public long execLatencyMs = 5;
+        public long runtimeMs = 50;
+        public long removeLatencyMs = 15;
+        public int outputBytes = 1_024;
+        public int frameBytes = 64;
+        // Output is this text repeated, when set; otherwise ASCII lines
+        public String outputText;
+        public int exitCode = 0;
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Settings settings;
+    private final Map<String, Boolean> containers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> containerLabels = new ConcurrentHashMap<>();
+    // exec id -> exit code once finished (absent while running)
+    private final Map<String, Integer> execExitCodes = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> uploadExecs = new ConcurrentHashMap<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    private FakeDockerClient(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static DockerClient create(Settings settings) {
+        FakeDockerClient engine = new FakeDockerClient(settings);
+        return (DockerClient) Proxy.newProxyInstance(DockerClient.class.getClassLoader(),
+                new Class<?>[]{DockerClient.class}, engine::client);
+    }
+
+    private Object client(Object proxy, Method method, Object[] args) {
+        String arg = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+        return switch (method.getName()) {
+            case "pingCmd" -> command(method.getReturnType(), (cmd, execArgs) -> null);
+            case "createContainerCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                sleep(settings.createLatencyMs);
+                String id = "fake-" + created.incrementAndGet() + "-" + UUID.randomUUID();
+                containers.put(id, Boolean.FALSE);
+                @SuppressWarnings("unchecked")
+                Map<String, String> labels = (Map<String, String>) cmd.get("withLabels");
+                containerLabels.put(id, labels != null ? labels : Map.of());
+                return MAPPER.convertValue(Map.of("Id", id), CreateContainerResponse.class);
+            });
+            case "startContainerCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                sleep(settings.startLatencyMs);
+                requireContainer(arg).put(arg, Boolean.TRUE);
+                return null;
+            });
+            case "removeContainerCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                sleep(settings.removeLatencyMs);
+                containers.remove(arg);
+                containerLabels.remove(arg);
+                return null;
+            });
+            case "listContainersCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                @SuppressWarnings("unchecked")
+                Map<String, String> filter = (Map<String, String>) cmd.getOrDefault("withLabelFilter", Map.of());
+                return containerLabels.entrySet().stream()
+                        .filter(e -> e.getValue().entrySet().containsAll(filter.entrySet()))
+                        .map(e -> MAPPER.convertValue(Map.of("Id", e.getKey(), "Labels", e.getValue()), Container.class))
+                        .toList();
+            });
+            case "execCreateCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                requireContainer(arg);
+                String id = UUID.randomUUID().toString();
+                Object[] cmdLine = (Object[]) cmd.get("withCmd");
+                if (cmdLine != null && cmdLine.length > 0 && "tar".equals(cmdLine[0])) {
+                    uploadExecs.put(id, Boolean.TRUE);
+                }
+                return MAPPER.convertValue(Map.of("Id", id), ExecCreateCmdResponse.class);
+            });
+            case "execStartCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                @SuppressWarnings("unchecked")
+                ResultCallback<Frame> callback = (ResultCallback<Frame>) execArgs[0];
+                InputStream stdin = (InputStream) cmd.get("withStdIn");
+                Thread.ofVirtual().name("fake-exec-" + arg).start(() -> runExec(arg, stdin, callback));
+                return callback;
+            });
+            case "inspectExecCmd" -> command(method.getReturnType(), (cmd, execArgs) -> {
+                Integer exitCode = execExitCodes.get(arg);
+                Map<String, Object> state = exitCode != null
+                        ? Map.of("ExitCode", exitCode, "Running", false)
+                        : Map.of("Running", true);
+                return MAPPER.convertValue(state, InspectExecResponse.class);
+            });
+            case "close" -> null;
+            case "toString" -> "FakeDockerClient";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException("FakeDockerClient does not support " + method.getName());
+        };
+    }
+
+    private void runExec(String execId, InputStream stdin, ResultCallback<Frame> callback) {
+        Closeable cancel = () -> {};
+        callback.onStart(cancel);
+        try {
+            if (uploadExecs.remove(execId) != null) {
+                if (stdin != null) stdin.transferTo(OutputStream.nullOutputStream());
+                execExitCodes.put(execId, 0);
+            } else {
+                sleep(settings.execLatencyMs);
+                streamOutput(callback);
+                execExitCodes.put(execId, settings.exitCode);
+            }
+            callback.onComplete();
+        } catch (Exception e) {
+            execExitCodes.put(execId, 1);
+            callback.onError(e);
+        }
+    }
+
+    // Spreads outputBytes across runtimeMs in frameBytes chunks
+    private void streamOutput(ResultCallback<Frame> callback) {
+        int frames = Math.max(1, (settings.outputBytes + settings.frameBytes - 1) / settings.frameBytes);
+        long pauseNanos = settings.runtimeMs * 1_000_000 / frames;
+        byte[] line = new byte[settings.frameBytes];
+        byte[] text = settings.outputText != null ? settings.outputText.getBytes(StandardCharsets.UTF_8) : null;
+        for (int i = 0; i < line.length; i++) {
+            line[i] = text != null ? text[i % text.length] : (byte) (i % 64 == 63 ? '\n' : 'a' + i % 26);
+        }
+
+        int remaining = settings.outputBytes;
+        for (int i = 0; i < frames && remaining > 0; i++) {
+            int size = Math.min(remaining, line.length);
+            byte[] payload = size == line.length ? line : Arrays.copyOf(line, size);
+            callback.onNext(new Frame(StreamType.STDOUT, payload));
+            remaining -= size;
+            LockSupport.parkNanos(pauseNanos);
+        }
+    }
+
+    private Map<String, Boolean> requireContainer(String id) {
+        if (id == null || !containers.containsKey(id)) {
+            throw new IllegalStateException("No such container: " + id);
+        }
+        return containers;
+    }
+
+    private static void sleep(long ms) {
+        if (ms > 0) LockSupport.parkNanos(ms * 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface ExecHandler {
+        Object exec(Map<String, Object> cmd, Object[] execArgs);
+    }
+
+    /**
+     * A builder-style command proxy: every withX(...) is recorded and returns the proxy,
+     * and exec(...) runs the handler with what was recorded.
+     */
+    private static Object command(Class<?> type, ExecHandler handler) {
+        Map<String, Object> recorded = new ConcurrentHashMap<>();
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("exec")) {
+                return handler.exec(recorded, args);
+            }
+            if (name.startsWith("with") && args != null && args.length > 0) {
+                recorded.put(name, args.length == 1 ? args[0] : args);
+                return proxy;
+            }
+            if (name.equals("close")) {
+                return null;
+            }
+            if (method.getReturnType().isInstance(proxy)) {
+                return proxy;
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return null;
+        });
+    }
+}
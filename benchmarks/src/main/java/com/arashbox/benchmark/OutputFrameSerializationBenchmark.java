@@ -0,0 +1,42 @@
+package com.arashbox.benchmark;
+
+import com.arashbox.dto.OutputFrame;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of turning an OutputFrame into a STOMP message payload, as SimpMessagingTemplate does. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputFrameSerializationBenchmark {
+
+    @Param({"16", "1024", "16384"})
+    public int payloadChars;
+
+    private final MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+    private OutputFrame stdoutFrame;
+    private OutputFrame exitFrame;
+
+    @Setup
+    public void setUp() {
+        stdoutFrame = OutputFrame.stdout("x".repeat(payloadChars - 1) + "\n");
+        exitFrame = OutputFrame.exit(0, 123);
+    }
+
+    @Benchmark
+    public Message<?> stdout() {
+        return converter.toMessage(stdoutFrame, SimpMessageHeaderAccessor.create().getMessageHeaders());
+    }
+
+    @Benchmark
+    public Message<?> exit() {
+        return converter.toMessage(exitFrame, SimpMessageHeaderAccessor.create().getMessageHeaders());
+    }
+}
@@ -0,0 +1,70 @@
+package com.arashbox.benchmark;
+
+import com.arashbox.config.RateLimitFilter;
+import com.arashbox.config.RateLimitProperties;
+import com.arashbox.config.RateLimiter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter hot path under contention: 8 threads hammering either one client key
+ * (worst case for per-key contention) or many keys (map growth and hashing).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitFilter filter;
+    private final FilterChain chain = (request, response) -> {};
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPaths(List.of("/api/execute"));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("execute", rule);
+        filter = new RateLimitFilter(new RateLimiter(properties));
+    }
+
+    // Requests are prebuilt and cycled so only the filter is measured
+    @State(Scope.Thread)
+    public static class Requests {
+        final MockHttpServletRequest[] requests = new MockHttpServletRequest[1024];
+        int next;
+
+        @Setup
+        public void setUp(RateLimitFilterBenchmark benchmark) {
+            for (int i = 0; i < requests.length; i++) {
+                int client = ThreadLocalRandom.current().nextInt(benchmark.clients);
+                MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/execute");
+                request.setRemoteAddr("10." + (client >> 16 & 0xff) + "." + (client >> 8 & 0xff) + "." + (client & 0xff));
+                requests[i] = request;
+            }
+        }
+
+        MockHttpServletRequest next() {
+            return requests[next++ & (requests.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public int doFilter(Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(requests.next(), response, chain);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,43 @@
+package com.arashbox.service;
+
+import com.arashbox.dto.ExecutionResponse;
+import com.arashbox.dto.OutputFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** REST aggregation of a frame stream into one ExecutionResponse, as execute() does. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionResponseCollectorBenchmark {
+
+    @Param({"10", "1000"})
+    public int frameCount;
+
+    private List<OutputFrame> frames;
+
+    @Setup
+    public void setUp() {
+        frames = new ArrayList<>(frameCount + 1);
+        for (int i = 0; i < frameCount; i++) {
+            frames.add(i % 10 == 9 ? OutputFrame.stderr("warning: line " + i + "\n")
+                    : OutputFrame.stdout("line " + i + " of output\n"));
+        }
+        frames.add(OutputFrame.exit(0, 42));
+    }
+
+    @Benchmark
+    public ExecutionResponse aggregate() {
+        ExecutionResponseCollector collector = new ExecutionResponseCollector(32_768, 32_768);
+        for (OutputFrame frame : frames) {
+            collector.accept(frame);
+        }
+        return collector.toResponse();
+    }
+}
@@ -0,0 +1,57 @@
+package com.arashbox.service;
+
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The log callback's per-frame work: a synthetic docker Frame stream fed through
+ * OutputCoalescer. One operation is one whole run's worth of frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputCoalescerBenchmark {
+
+    // Typical print() line, and a bulk write
+    @Param({"12", "4096"})
+    public int frameBytes;
+
+    // Every 8th frame on stderr, to exercise stream switches
+    @Param({"false", "true"})
+    public boolean interleaved;
+
+    private static final int FRAMES = 1_000;
+
+    private Frame[] frames;
+
+    @Setup
+    public void setUp() {
+        // Multi-byte characters so the decoder has to carry split sequences
+        byte[] unit = "héllo wörld ✓\n".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[frameBytes];
+        for (int i = 0; i < frameBytes; i++) payload[i] = unit[i % unit.length];
+
+        frames = new Frame[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            StreamType type = interleaved && i % 8 == 7 ? StreamType.STDERR : StreamType.STDOUT;
+            frames[i] = new Frame(type, payload);
+        }
+    }
+
+    @Benchmark
+    public void coalesce(Blackhole blackhole) {
+        OutputCoalescer output = new OutputCoalescer(Integer.MAX_VALUE, 16_384, blackhole::consume);
+        for (Frame frame : frames) {
+            output.accept(frame.getStreamType(), frame.getPayload());
+        }
+        output.finish();
+    }
+}
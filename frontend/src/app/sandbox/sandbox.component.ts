@@ -2,7 +2,7 @@ import { Component, OnInit, OnDestroy, ViewChild, ElementRef, AfterViewInit } fr
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { Subscription } from 'rxjs';
-import { ExecutionService, ExecutionResponse } from '../services/execution.service';
+import { ExecutionService, ExecutionResponse, ResourceUsage } from '../services/execution.service';
 import { WebSocketService, OutputFrame } from '../services/websocket.service';
 import { Terminal } from '@xterm/xterm';
 import { FitAddon } from '@xterm/addon-fit';
@@ -27,15 +27,24 @@ export class SandboxComponent implements OnInit, AfterViewInit, OnDestroy {
   stdinInput = '';
   executionTime = 0;
   exitCode: number | null = null;
+  usage: ResourceUsage | null = null;
 
   languages = [
     { value: 'python', label: 'Python' },
-    { value: 'javascript', label: 'JavaScript' }
+    { value: 'javascript', label: 'JavaScript' },
+    { value: 'java', label: 'Java' },
+    { value: 'c', label: 'C' },
+    { value: 'cpp', label: 'C++' },
+    { value: 'go', label: 'Go' }
   ];
 
   private readonly defaultCode: Record<string, string> = {
     python: '# Write your Python code here\nprint("Hello, Arashbox!")\n',
-    javascript: '// Write your JavaScript code here\nconsole.log("Hello, Arashbox!");\n'
+    javascript: '// Write your JavaScript code here\nconsole.log("Hello, Arashbox!");\n',
+    java: 'public class Main {\n    public static void main(String[] args) {\n        System.out.println("Hello, Arashbox!");\n    }\n}\n',
+    c: '#include <stdio.h>\n\nint main(void) {\n    printf("Hello, Arashbox!\\n");\n    return 0;\n}\n',
+    cpp: '#include <iostream>\n\nint main() {\n    std::cout << "Hello, Arashbox!" << std::endl;\n    return 0;\n}\n',
+    go: 'package main\n\nimport "fmt"\n\nfunc main() {\n\tfmt.Println("Hello, Arashbox!")\n}\n'
   };
 
   private terminal!: Terminal;
@@ -157,15 +166,25 @@ export class SandboxComponent implements OnInit, AfterViewInit, OnDestroy {
     this.isRunning = true;
     this.executionTime = 0;
     this.exitCode = null;
+    this.usage = null;
     this.terminal.reset();
 
     const code = this.editor.getValue();
     const stdin = this.stdinInput || undefined;
     const sessionId = crypto.randomUUID();
+    let queuedLineShown = false;
 
     this.executionSub = this.wsService.execute({ sessionId, code, language: this.selectedLanguage, stdin }).subscribe({
       next: (frame: OutputFrame) => {
+        if (queuedLineShown && frame.type !== 'queued') {
+          this.terminal.write('\r\x1b[2K');
+          queuedLineShown = false;
+        }
         switch (frame.type) {
+          case 'queued':
+            this.terminal.write(`\r\x1b[2K\x1b[90mQueued (position ${frame.position ?? '?'})...\x1b[0m`);
+            queuedLineShown = true;
+            break;
           case 'stdout':
             this.terminal.write(frame.data ?? '');
             break;
@@ -175,6 +194,7 @@ export class SandboxComponent implements OnInit, AfterViewInit, OnDestroy {
           case 'exit':
             this.executionTime = frame.executionTimeMs ?? 0;
             this.exitCode = frame.exitCode ?? 0;
+            this.usage = frame.usage ?? null;
             this.isRunning = false;
             break;
           case 'error':
@@ -200,6 +220,7 @@ export class SandboxComponent implements OnInit, AfterViewInit, OnDestroy {
         if (!res.stdout && !res.stderr) this.terminal.write('(no output)');
         this.executionTime = res.executionTimeMs;
         this.exitCode = res.exitCode;
+        this.usage = res.usage ?? null;
         this.isRunning = false;
       },
       error: () => {
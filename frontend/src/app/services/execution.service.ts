@@ -2,10 +2,24 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
+export interface ProjectFile {
+  path: string;
+  content: string;
+}
+
 export interface ExecutionRequest {
   code: string;
   language: string;
   stdin?: string;
+  noCache?: boolean;
+  files?: ProjectFile[];
+  entrypoint?: string;
+}
+
+export interface ResourceUsage {
+  cpuTimeMs: number;
+  peakMemoryBytes?: number;
+  oomKilled: boolean;
 }
 
 export interface ExecutionResponse {
@@ -13,6 +27,39 @@ export interface ExecutionResponse {
   stderr: string;
   exitCode: number;
   executionTimeMs: number;
+  stdoutOmittedBytes?: number;
+  stderrOmittedBytes?: number;
+  timedOut?: boolean;
+  usage?: ResourceUsage;
+}
+
+export interface TestCase {
+  stdin?: string;
+  expectedOutput?: string;
+}
+
+export interface BatchExecutionRequest extends ExecutionRequest {
+  cases: TestCase[];
+  stopOnFailure?: boolean;
+}
+
+export interface TestCaseResult {
+  index: number;
+  stdout: string;
+  stderr: string;
+  exitCode: number;
+  executionTimeMs: number;
+  timedOut: boolean;
+  passed?: boolean;
+}
+
+export interface BatchExecutionResponse {
+  results: TestCaseResult[];
+  succeeded: number;
+  failed: number;
+  skipped: number;
+  executionTimeMs: number;
+  error?: string;
 }
 
 @Injectable({
@@ -25,4 +72,8 @@ export class ExecutionService {
   execute(request: ExecutionRequest): Observable<ExecutionResponse> {
     return this.http.post<ExecutionResponse>('/api/execute', request);
   }
+
+  executeBatch(request: BatchExecutionRequest): Observable<BatchExecutionResponse> {
+    return this.http.post<BatchExecutionResponse>('/api/execute/batch', request);
+  }
 }
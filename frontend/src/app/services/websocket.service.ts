@@ -1,20 +1,23 @@
 import { Injectable, OnDestroy } from '@angular/core';
 import { Client, IMessage } from '@stomp/stompjs';
 import { Observable, Subject } from 'rxjs';
+import { ExecutionRequest, ResourceUsage, TestCaseResult } from './execution.service';
 
 export interface OutputFrame {
-  type: 'stdout' | 'stderr' | 'exit' | 'error';
+  type: 'stdout' | 'stderr' | 'exit' | 'error' | 'queued' | 'case';
   data?: string;
   exitCode?: number;
   executionTimeMs?: number;
   message?: string;
+  position?: number;
+  result?: TestCaseResult;
+  timedOut?: boolean;
+  usage?: ResourceUsage;
 }
 
-export interface WsExecuteRequest {
+export interface WsExecuteRequest extends ExecutionRequest {
   sessionId: string;
-  code: string;
-  language: string;
-  stdin?: string;
+  interactive?: boolean;
 }
 
 @Injectable({
@@ -48,6 +51,7 @@ export class WebSocketService implements OnDestroy {
 
   execute(request: WsExecuteRequest): Observable<OutputFrame> {
     const subject = new Subject<OutputFrame>();
+    let finished = false;
 
     const doExecute = () => {
       const sub = this.client.subscribe(
@@ -58,6 +62,7 @@ export class WebSocketService implements OnDestroy {
 
           if (frame.type === 'exit' || frame.type === 'error') {
             if (frame.type === 'exit') {
+              finished = true;
               sub.unsubscribe();
               subject.complete();
             }
@@ -77,7 +82,32 @@ export class WebSocketService implements OnDestroy {
       this.pendingActions.push(doExecute);
     }
 
-    return subject.asObservable();
+    // Unsubscribing before the run has exited cancels it on the server
+    return new Observable<OutputFrame>(observer => {
+      const inner = subject.subscribe(observer);
+      return () => {
+        inner.unsubscribe();
+        if (!finished) {
+          finished = true;
+          this.cancel(request.sessionId);
+        }
+      };
+    });
+  }
+
+  cancel(sessionId: string): void {
+    if (!this.connected) return;
+    this.client.publish({
+      destination: `/app/execute/${sessionId}/cancel`,
+      body: ''
+    });
+  }
+
+  sendStdin(sessionId: string, data: string, eof = false): void {
+    this.client.publish({
+      destination: `/app/execute/${sessionId}/stdin`,
+      body: JSON.stringify({ data, eof })
+    });
   }
 
   ngOnDestroy(): void {